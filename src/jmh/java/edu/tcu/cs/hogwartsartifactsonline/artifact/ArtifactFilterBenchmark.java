@@ -0,0 +1,140 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of one page (21 rows, like ArtifactService.findPage) of each artifact filter as the table grows.
+ * The schema and indexes are the ones Hibernate generates for Artifact, on an H2 in-memory database.
+ * The filters should stay about flat from 10k to 1M rows while the unindexed description scan grows linearly.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=ArtifactFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactFilterBenchmark {
+
+    private static final int OWNERS = 1000;
+
+    private static final String COLUMNS = "select a.id, a.name, a.description, a.image_url, a.owner_id, a.version from artifact a ";
+
+    @Param({"10000", "100000", "1000000"})
+    public int artifacts;
+
+    private Connection connection;
+
+    private PreparedStatement byOwner;
+
+    private PreparedStatement unowned;
+
+    private PreparedStatement byNamePrefix;
+
+    private PreparedStatement byDescriptionPrefix;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:artifact-filter-benchmark-" + this.artifacts);
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("create table artifact (id varchar(255) primary key, name varchar(255), description varchar(255), " +
+                    "image_url varchar(255), owner_id integer, version bigint)");
+            statement.execute("create index idx_artifact_owner_id on artifact (owner_id, id)");
+            statement.execute("create index idx_artifact_name on artifact (name)");
+        }
+        this.connection.setAutoCommit(false);
+        try (PreparedStatement insert = this.connection.prepareStatement("insert into artifact values (?, ?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < this.artifacts; i++) {
+                insert.setString(1, String.valueOf(1250808601744904191L + i));
+                insert.setString(2, "Artifact " + i);
+                insert.setString(3, "Description " + i);
+                insert.setString(4, "ImageUrl");
+                if (i % 10 == 0) {
+                    insert.setNull(5, Types.INTEGER); // every tenth artifact has no owner.
+                } else {
+                    insert.setInt(5, i % OWNERS);
+                }
+                insert.addBatch();
+                if (i % 1000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        this.connection.commit();
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("analyze");
+        }
+
+        this.byOwner = this.connection.prepareStatement(COLUMNS + "where a.owner_id = ? and a.id > ? order by a.id limit 21");
+        this.unowned = this.connection.prepareStatement(COLUMNS + "where a.owner_id is null and a.id > ? order by a.id limit 21");
+        this.byNamePrefix = this.connection.prepareStatement(COLUMNS + "where a.name like ? escape '\\' and a.id > ? order by a.id limit 21");
+        this.byDescriptionPrefix = this.connection.prepareStatement(COLUMNS + "where a.description like ? escape '\\' and a.id > ? order by a.id limit 21");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        this.connection.close();
+    }
+
+    @Benchmark
+    public void byOwner(Blackhole blackhole) throws SQLException {
+        this.byOwner.setInt(1, 42);
+        this.byOwner.setString(2, "");
+        consume(this.byOwner, blackhole);
+    }
+
+    @Benchmark
+    public void unowned(Blackhole blackhole) throws SQLException {
+        this.unowned.setString(1, "");
+        consume(this.unowned, blackhole);
+    }
+
+    @Benchmark
+    public void byNamePrefix(Blackhole blackhole) throws SQLException {
+        this.byNamePrefix.setString(1, "Artifact 4242%");
+        this.byNamePrefix.setString(2, "");
+        consume(this.byNamePrefix, blackhole);
+    }
+
+    /**
+     * The same query on a column without an index, the baseline the filters are compared with.
+     */
+    @Benchmark
+    public void byDescriptionPrefixWithoutIndex(Blackhole blackhole) throws SQLException {
+        this.byDescriptionPrefix.setString(1, "Description 4242%");
+        this.byDescriptionPrefix.setString(2, "");
+        consume(this.byDescriptionPrefix, blackhole);
+    }
+
+    private static void consume(PreparedStatement query, Blackhole blackhole) throws SQLException {
+        try (ResultSet resultSet = query.executeQuery()) {
+            while (resultSet.next()) {
+                blackhole.consume(resultSet.getString(1));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact.converter;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.Artifact;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.dto.ArtifactDto;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.Wizard;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.converter.WizardToWizardDtoConverter;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.dto.WizardDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting one artifact (with and without an owner) and one wizard, done for every artifact of every listing.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=ArtifactToArtifactDtoConverterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArtifactToArtifactDtoConverterBenchmark {
+
+    private final WizardToWizardDtoConverter wizardToWizardDtoConverter = new WizardToWizardDtoConverter();
+
+    private final ArtifactToArtifactDtoConverter artifactToArtifactDtoConverter = new ArtifactToArtifactDtoConverter(this.wizardToWizardDtoConverter);
+
+    private Wizard wizard;
+
+    private Artifact ownedArtifact;
+
+    private Artifact unownedArtifact;
+
+    @Setup
+    public void setUp() {
+        this.wizard = new Wizard();
+        this.wizard.setId(1);
+        this.wizard.setName("Albus Dumbledore");
+
+        this.ownedArtifact = artifact("1250808601744904191", "Deluminator");
+        this.ownedArtifact.setOwner(this.wizard);
+        this.unownedArtifact = artifact("1250808601744904196", "Resurrection Stone");
+    }
+
+    @Benchmark
+    public ArtifactDto convertOwnedArtifact() {
+        return this.artifactToArtifactDtoConverter.convert(this.ownedArtifact);
+    }
+
+    @Benchmark
+    public ArtifactDto convertUnownedArtifact() {
+        return this.artifactToArtifactDtoConverter.convert(this.unownedArtifact);
+    }
+
+    @Benchmark
+    public WizardDto convertWizard() {
+        return this.wizardToWizardDtoConverter.convert(this.wizard);
+    }
+
+    private static Artifact artifact(String id, String name) {
+        Artifact artifact = new Artifact();
+        artifact.setId(id);
+        artifact.setName(name);
+        artifact.setDescription("A " + name + " is a device invented by Albus Dumbledore.");
+        artifact.setImageUrl("ImageUrl");
+        return artifact;
+    }
+}
@@ -0,0 +1,93 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact.search;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.Artifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one ranked search page over an index of up to a million artifacts, the target is a p99 under 10ms at 1M
+ * (read the p0.99 line of the sample time results). Names and descriptions are drawn from a 20,000 word vocabulary
+ * with a Zipf-like distribution, so a few words occur in a large part of the catalog like real text.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=ArtifactSearchIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ArtifactSearchIndexBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+
+    @Param({"100000", "1000000"})
+    public int artifacts;
+
+    private ArtifactSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // outside of a transaction the changes are applied right away, the repository is only used by rebuild().
+        this.index = new ArtifactSearchIndex(null);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < this.artifacts; i++) {
+            Artifact artifact = new Artifact();
+            artifact.setId(String.valueOf(1250808601744904191L + i));
+            artifact.setName(words(random, 3));
+            artifact.setDescription(words(random, 15));
+            this.index.index(artifact);
+        }
+    }
+
+    /**
+     * A word of the top ten, found in about 40% of the catalog, the worst case: every hit is scored and ranked.
+     */
+    @Benchmark
+    public ArtifactSearchIndex.Hits commonTerm() {
+        return this.index.search("w3", 0, 20);
+    }
+
+    /**
+     * A word from the long tail, the typical specific query.
+     */
+    @Benchmark
+    public ArtifactSearchIndex.Hits rareTerm() {
+        return this.index.search("w4242", 0, 20);
+    }
+
+    @Benchmark
+    public ArtifactSearchIndex.Hits threeTerms() {
+        return this.index.search("w12 w345 w6789", 0, 20);
+    }
+
+    /**
+     * The deepest page ArtifactService allows (ArtifactService.MAX_SEARCH_RESULTS).
+     */
+    @Benchmark
+    public ArtifactSearchIndex.Hits commonTermDeepPage() {
+        return this.index.search("w3", 99, 100);
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // log-uniform ranks are about Zipf's law: the frequency of a word is proportional to 1 / its rank.
+            int rank = (int) Math.exp(random.nextDouble() * Math.log(VOCABULARY));
+            text.append('w').append(rank).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package edu.tcu.cs.hogwartsartifactsonline.hogwartsuser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getAuthorities is called on every authenticated request, the roles are parsed once when the principal is created
+ * (a cache miss in UserPrincipalCache). Both costs are measured.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=MyUserPrincipalBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MyUserPrincipalBenchmark {
+
+    private HogwartsUser hogwartsUser;
+
+    private MyUserPrincipal principal;
+
+    @Setup
+    public void setUp() {
+        this.hogwartsUser = new HogwartsUser();
+        this.hogwartsUser.setId(1);
+        this.hogwartsUser.setUsername("john");
+        this.hogwartsUser.setPassword("{bcrypt}$2a$12$hash");
+        this.hogwartsUser.setEnabled(true);
+        this.hogwartsUser.setRoles("admin user");
+        this.principal = new MyUserPrincipal(this.hogwartsUser);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return this.principal.getAuthorities();
+    }
+
+    @Benchmark
+    public MyUserPrincipal createPrincipal() {
+        return new MyUserPrincipal(this.hogwartsUser);
+    }
+}
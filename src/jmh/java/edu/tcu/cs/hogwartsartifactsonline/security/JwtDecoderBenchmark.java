@@ -0,0 +1,98 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of decoding the same bearer token again, the common case of a client calling the API with the token it got
+ * from /users/login. The uncached decoder verifies the RS256 signature every time, the cached one hashes the token
+ * and looks it up. Both share the same RSA-2048 key and token as SecurityConfiguration and JwtProvider would produce.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=JwtDecoderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtDecoderBenchmark {
+
+    private JwtDecoder uncached;
+
+    private JwtDecoder cached;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        RSAKey rsaKey = new RSAKey.Builder(publicKey).privateKey((RSAPrivateKey) keyPair.getPrivate()).build();
+
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("self")
+                .issuedAt(now)
+                .expiresAt(now.plus(2, ChronoUnit.HOURS))
+                .subject("john")
+                .claim("authorities", "ROLE_admin ROLE_user")
+                .build();
+        this.token = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)))
+                .encode(JwtEncoderParameters.from(claims))
+                .getTokenValue();
+
+        this.uncached = NimbusJwtDecoder.withPublicKey(publicKey).build();
+        this.cached = new CachingJwtDecoder(NimbusJwtDecoder.withPublicKey(publicKey).build(), 10_000);
+    }
+
+    @Benchmark
+    public Jwt uncached() {
+        return this.uncached.decode(this.token);
+    }
+
+    @Benchmark
+    public Jwt cached() {
+        return this.cached.decode(this.token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Jwt uncached8Threads() {
+        return this.uncached.decode(this.token);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Jwt cached8Threads() {
+        return this.cached.decode(this.token);
+    }
+}
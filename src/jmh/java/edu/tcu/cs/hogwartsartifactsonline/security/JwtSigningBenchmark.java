@@ -0,0 +1,60 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of JwtProvider.createToken per algorithm JwtKeys supports, i.e., the CPU a POST /users/login spends on the token.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=JwtSigningBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtSigningBenchmark {
+
+    @Param({"RS256", "ES256", "HS256"})
+    public String algorithm;
+
+    private JwtProvider jwtProvider;
+
+    private Authentication authentication;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path jwkSetLocation = Files.createTempDirectory("jwks").resolve("jwks.json");
+        JwtKeys jwtKeys = new JwtKeys(JWSAlgorithm.parse(this.algorithm), jwkSetLocation, Duration.ofDays(30),
+                JwtProvider.TOKEN_LIFETIME, Clock.systemUTC());
+        this.jwtProvider = new JwtProvider(new NimbusJwtEncoder(jwtKeys.signingKeySource()), jwtKeys);
+        this.authentication = UsernamePasswordAuthenticationToken.authenticated("john", null,
+                AuthorityUtils.createAuthorityList("ROLE_admin", "ROLE_user"));
+    }
+
+    @Benchmark
+    public String createToken() {
+        return this.jwtProvider.createToken(this.authentication);
+    }
+}
@@ -0,0 +1,64 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.dto.ArtifactDto;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.dto.WizardDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing a Result to JSON with an ObjectMapper built the way Spring Boot builds its own:
+ * one artifact (GET /artifacts/{id}) and a default page of artifacts (GET /artifacts?size=20).
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=ResultSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private Result oneArtifact;
+
+    private Result pageOfArtifacts;
+
+    @Setup
+    public void setUp() {
+        WizardDto owner = new WizardDto(1, "Albus Dumbledore", 2);
+        List<ArtifactDto> artifactDtos = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            artifactDtos.add(new ArtifactDto(String.valueOf(1250808601744904191L + i), "Deluminator " + i,
+                    "A Deluminator is a device invented by Albus Dumbledore that resembles a cigarette lighter.", "ImageUrl", owner));
+        }
+        this.oneArtifact = new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Find One Success", artifactDtos.get(0));
+        this.pageOfArtifacts = new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Find Page Success",
+                new CursorPage<>(artifactDtos, CursorPage.encodeCursor(artifactDtos.get(19).id())));
+    }
+
+    @Benchmark
+    public byte[] serializeOneArtifact() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.oneArtifact);
+    }
+
+    @Benchmark
+    public byte[] serializePageOfArtifacts() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.pageOfArtifacts);
+    }
+}
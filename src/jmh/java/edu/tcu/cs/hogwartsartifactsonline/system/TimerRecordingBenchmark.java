@@ -0,0 +1,81 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of recording one latency the way the metrics configured in application.yml do: a timer with
+ * Prometheus histogram buckets and client-side (HdrHistogram) percentiles, with and without looking the timer up
+ * by its tags first (which is what the request, service and repository instrumentation do on every call).
+ * Compare with plainTimer, a timer without any distribution, to see what the percentiles cost.
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args=TimerRecordingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerRecordingBenchmark {
+
+    private static final Tags TAGS = Tags.of("method", "GET", "uri", "/api/v1/artifacts/{artifactId}", "status", "200", "outcome", "SUCCESS");
+
+    private PrometheusMeterRegistry registry;
+
+    private Timer plainTimer;
+
+    private Timer percentileTimer;
+
+    @Setup
+    public void setUp() {
+        this.registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        this.plainTimer = Timer.builder("plain").tags(TAGS).register(this.registry);
+        this.percentileTimer = httpServerRequestsTimer().register(this.registry);
+    }
+
+    private static Timer.Builder httpServerRequestsTimer() {
+        return Timer.builder("http.server.requests")
+                .tags(TAGS)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+
+    @Benchmark
+    public void plainTimer() {
+        this.plainTimer.record(1_500_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void percentileTimer() {
+        this.percentileTimer.record(1_500_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void percentileTimerContended() {
+        this.percentileTimer.record(1_500_000, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    public void lookupAndRecord() {
+        httpServerRequestsTimer().register(this.registry).record(1_500_000, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,153 @@
+package edu.tcu.cs.hogwartsartifactsonline.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: every client sends a request, waits for the response and sends the next one, for the
+ * given number of seconds after a warm-up. The clients are callbacks on a few threads (not a thread each), so 10k of
+ * them fit in one JVM. Prints the throughput and the latency percentiles of the measured part.
+ *
+ * To compare the two request execution modes on JDK 21, start the application once per mode and run this against it:
+ *   java -jar target/hogwarts-artifacts-online-*.jar
+ *   java -jar target/hogwarts-artifacts-online-*.jar --spring.profiles.active=virtual-threads
+ *   mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--clients=10000 --seconds=60"
+ *
+ * To compare the blocking and the asynchronous read endpoints, run it once with each url against the same instance:
+ *   -Dloadtest.args="--url=http://localhost:80/api/v1/artifacts?size=20"
+ *   -Dloadtest.args="--url=http://localhost:80/api/v1/artifacts/async?size=20"
+ *
+ * To compare the synchronous show-sql logging with the sampled asynchronous query logger, start the application once
+ * with each and run the same load against both:
+ *   java -jar target/hogwarts-artifacts-online-*.jar --spring.profiles.active=show-sql
+ *   java -jar target/hogwarts-artifacts-online-*.jar
+ *   -Dloadtest.args="--clients=1000 --seconds=60"
+ *
+ * Options (all optional): --url (default: the first page of GET /api/v1/artifacts on localhost:80, a JDBC-bound request),
+ * --clients (10000), --seconds (60), --warmup-seconds (15), --token (sent as a bearer token).
+ * Raise the open file limit (ulimit -n) of both processes above the number of clients first.
+ * Being closed-loop, a slow server also slows the clients down, so compare the throughput as well as the percentiles.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI uri = URI.create(options.getOrDefault("url", "http://localhost:80/api/v1/artifacts?size=20"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "10000"));
+        long seconds = Long.parseLong(options.getOrDefault("seconds", "60"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup-seconds", "15"));
+
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET();
+        if (options.containsKey("token")) {
+            requestBuilder.header("Authorization", "Bearer " + options.get("token"));
+        }
+        HttpRequest request = requestBuilder.build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(executor)
+                .build();
+
+        long start = System.nanoTime();
+        Run run = new Run(httpClient, request, executor, start + TimeUnit.SECONDS.toNanos(warmupSeconds),
+                start + TimeUnit.SECONDS.toNanos(warmupSeconds + seconds), clients);
+        System.out.printf("%d clients, %ds warm-up, %ds measured, GET %s%n", clients, warmupSeconds, seconds, uri);
+        for (int i = 0; i < clients; i++) {
+            run.next();
+        }
+        run.done.await();
+        executor.shutdown();
+
+        Histogram latencies = run.latencies;
+        System.out.printf("requests:   %d (%d errors)%n", latencies.getTotalCount(), run.errors.sum());
+        System.out.printf("throughput: %.1f requests/s%n", latencies.getTotalCount() / (double) seconds);
+        System.out.printf("latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static final class Run {
+
+        private final HttpClient httpClient;
+
+        private final HttpRequest request;
+
+        private final ExecutorService executor;
+
+        private final long measureFrom;
+
+        private final long measureUntil;
+
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(2), 3);
+
+        private final LongAdder errors = new LongAdder();
+
+        private final CountDownLatch done;
+
+        private Run(HttpClient httpClient, HttpRequest request, ExecutorService executor, long measureFrom, long measureUntil, int clients) {
+            this.httpClient = httpClient;
+            this.request = request;
+            this.executor = executor;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            this.done = new CountDownLatch(clients);
+        }
+
+        /**
+         * Sends one request of a client and schedules its next one once the response arrived.
+         */
+        private void next() {
+            long sent = System.nanoTime();
+            if (sent >= this.measureUntil) {
+                this.done.countDown();
+                return;
+            }
+            this.httpClient.sendAsync(this.request, HttpResponse.BodyHandlers.discarding())
+                    .whenCompleteAsync((response, ex) -> {
+                        long received = System.nanoTime();
+                        if (sent >= this.measureFrom) {
+                            if (ex != null || response.statusCode() >= 400) {
+                                this.errors.increment();
+                            } else {
+                                this.latencies.recordValue(Math.min(received - sent, this.latencies.getHighestTrackableValue()));
+                            }
+                        }
+                        next();
+                    }, this.executor);
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package edu.tcu.cs.hogwartsartifactsonline;
 
 import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import edu.tcu.cs.hogwartsartifactsonline.system.idworker.IdWorkerLeaseService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class HogwartsArtifactsOnlineApplication {
 
     public static void main(String[] args) {
@@ -13,12 +19,23 @@ public class HogwartsArtifactsOnlineApplication {
     }
 
     /**
-     * Let spring manage the instance of idWorker
+     * Let spring manage the instance of idWorker.
+     * Every running instance needs its own worker/datacenter id pair or two instances can generate the same id.
+     * The pair is taken from the configuration if both are set (and leased by this instance so leasing instances skip it
+     * and a second instance configured with it fails to start), otherwise a free pair is leased from the database. The IdWorker reads the pair from the lease service
+     * for every id, so a lost lease stops id generation instead of risking duplicates.
      * @return
      */
     @Bean
-    public IdWorker idWorker() {
-        return new IdWorker(1, 1);
+    public IdWorker idWorker(@Value("${hogwarts.id-worker.worker-id:#{null}}") Long workerId,
+                             @Value("${hogwarts.id-worker.datacenter-id:#{null}}") Long datacenterId,
+                             IdWorkerLeaseService idWorkerLeaseService) {
+        if (workerId != null && datacenterId != null) {
+            idWorkerLeaseService.pin(IdWorkerLeaseService.slotOf(datacenterId, workerId));
+        } else {
+            idWorkerLeaseService.claim();
+        }
+        return new IdWorker(idWorkerLeaseService);
     }
 
 }
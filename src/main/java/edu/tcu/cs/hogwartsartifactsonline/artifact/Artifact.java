@@ -2,12 +2,24 @@ package edu.tcu.cs.hogwartsartifactsonline.artifact;
 
 import edu.tcu.cs.hogwartsartifactsonline.wizard.Wizard;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import java.io.Serializable;
 
+/**
+ * (owner_id, id) serves the by-owner and unowned (owner_id is null) filters in id order, so those pages are an index seek
+ * no matter how many artifacts there are. name serves the name prefix filter (a LIKE 'prefix%' range scan).
+ */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_artifact_owner_id", columnList = "owner_id, id"),
+        @Index(name = "idx_artifact_name", columnList = "name")
+})
 public class Artifact implements Serializable {
 
     @Id
@@ -23,10 +35,17 @@ public class Artifact implements Serializable {
      * can be null
      * one owner can own many artifacts.
      * a wizard can own 0 to many artifacts.
+     * lazy so loading an artifact doesn't also load its owner, read paths that need the owner fetch it with an entity graph.
       */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Wizard owner;
 
+    /**
+     * incremented by Hibernate on every update, it is used to build the ETag of an artifact.
+     */
+    @Version
+    private Long version;
+
     public Artifact() {
 
     }
@@ -70,4 +89,12 @@ public class Artifact implements Serializable {
     public void setOwner(Wizard owner) {
         this.owner = owner;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,175 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.dto.ArtifactDto;
+import edu.tcu.cs.hogwartsartifactsonline.system.AsyncConfiguration;
+import edu.tcu.cs.hogwartsartifactsonline.system.CursorPage;
+import edu.tcu.cs.hogwartsartifactsonline.system.ETags;
+import edu.tcu.cs.hogwartsartifactsonline.system.Result;
+import edu.tcu.cs.hogwartsartifactsonline.system.SearchPage;
+import edu.tcu.cs.hogwartsartifactsonline.system.StatusCode;
+import edu.tcu.cs.hogwartsartifactsonline.system.Tagged;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The read endpoints of ArtifactController as asynchronous requests: the servlet thread only parses the request and
+ * hands the work to the artifact read executor (see AsyncConfiguration), it is free for the next request while the
+ * database is queried. The responses are the same as those of the blocking endpoints.
+ *
+ * JPA/JDBC still block, so the blocking moves to a pool sized for the database instead of holding request threads.
+ * (WebFlux with R2DBC can't serve these next to the Spring MVC endpoints in the same application.)
+ */
+@RestController
+@RequestMapping("${api.endpoint.base-url}/artifacts/async")
+public class ArtifactAsyncController {
+
+    private final ArtifactService artifactService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Executor artifactReadExecutor;
+
+    private final ArtifactExportLimiter artifactExportLimiter;
+
+    private final Duration exportTimeout;
+
+    public ArtifactAsyncController(ArtifactService artifactService, ObjectMapper objectMapper,
+                                   @Qualifier(AsyncConfiguration.ARTIFACT_READ_EXECUTOR) Executor artifactReadExecutor,
+                                   ArtifactExportLimiter artifactExportLimiter,
+                                   @Value("${hogwarts.artifact.export.timeout}") Duration exportTimeout) {
+        this.artifactService = artifactService;
+        this.objectMapper = objectMapper;
+        this.artifactReadExecutor = artifactReadExecutor;
+        this.artifactExportLimiter = artifactExportLimiter;
+        this.exportTimeout = exportTimeout;
+    }
+
+    /**
+     * @param artifactId The artifact's unique identifier.
+     * @param ifNoneMatch The ETag the client has, if it is still current the response is a 304 without a body.
+     * @return The artifact wrapped in a Result, completed on the artifact read executor.
+     */
+    @GetMapping("/{artifactId}")
+    public CompletableFuture<ResponseEntity<Result>> findArtifactById(@PathVariable String artifactId,
+                                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return CompletableFuture.supplyAsync(() -> {
+            Tagged<ArtifactDto> artifactDto = this.artifactService.findTaggedDtoById(artifactId);
+            if (ETags.matches(ifNoneMatch, artifactDto.eTag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(artifactDto.eTag()).build();
+            }
+            return ResponseEntity.ok().eTag(artifactDto.eTag())
+                    .body(new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Find One Success", artifactDto.body()));
+        }, this.artifactReadExecutor);
+    }
+
+    /**
+     * One page of the artifacts, see ArtifactController.findAllArtifacts for the parameters.
+     * @return The page and the cursor of the next page wrapped in a Result, completed on the artifact read executor.
+     */
+    @GetMapping
+    public CompletableFuture<ResponseEntity<Result>> findArtifactPage(@RequestParam(defaultValue = "" + ArtifactService.DEFAULT_PAGE_SIZE) int size,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer ownerId,
+                                                                      @RequestParam(required = false) String namePrefix,
+                                                                      @RequestParam(defaultValue = "false") boolean unowned,
+                                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ArtifactFilter filter = new ArtifactFilter(ownerId, namePrefix, unowned);
+        return CompletableFuture.supplyAsync(() -> {
+            Tagged<CursorPage<ArtifactDto>> artifactDtoPage = this.artifactService.findTaggedDtoPage(filter, cursor, size);
+            if (ETags.matches(ifNoneMatch, artifactDtoPage.eTag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(artifactDtoPage.eTag()).build();
+            }
+            return ResponseEntity.ok().eTag(artifactDtoPage.eTag())
+                    .body(new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Find Page Success", artifactDtoPage.body()));
+        }, this.artifactReadExecutor);
+    }
+
+    /**
+     * Every artifact, in the same Result JSON as the blocking GET /artifacts, written page by page.
+     * Each page (MAX_PAGE_SIZE artifacts) is read with a keyset query in a transaction of its own and written after
+     * the transaction ended, so a slow client holds an executor thread but never a connection or a database cursor.
+     * Only authenticated users may export (see SecurityConfiguration), the exports running at once are capped
+     * (see ArtifactExportLimiter), and an export has hogwarts.artifact.export.timeout instead of the short timeout of
+     * the other asynchronous requests.
+     * @return The streamed listing, written on the artifact read executor.
+     */
+    @GetMapping("/all")
+    public ResponseEntity<ResponseBodyEmitter> findAllArtifacts() {
+        this.artifactExportLimiter.acquire();
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(this.exportTimeout.toMillis());
+        try {
+            this.artifactReadExecutor.execute(() -> {
+                try {
+                    writeAllArtifacts(emitter);
+                    emitter.complete();
+                } catch (IOException | RuntimeException ex) {
+                    emitter.completeWithError(ex);
+                } finally {
+                    this.artifactExportLimiter.release();
+                }
+            });
+        } catch (RuntimeException ex) {
+            this.artifactExportLimiter.release();
+            throw ex;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(emitter);
+    }
+
+    private void writeAllArtifacts(ResponseBodyEmitter emitter) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (JsonGenerator generator = this.objectMapper.createGenerator(buffer)) {
+            generator.writeStartObject();
+            generator.writeBooleanField("flag", true);
+            generator.writeNumberField("code", StatusCode.SUCCESS.getHttpStatusCodeValue());
+            generator.writeStringField("message", "Find All Success");
+            generator.writeArrayFieldStart("data");
+            String cursor = null;
+            do {
+                CursorPage<ArtifactDto> page = this.artifactService.findDtoPage(cursor, ArtifactService.MAX_PAGE_SIZE);
+                for (ArtifactDto artifactDto : page.content()) {
+                    generator.writeObject(artifactDto);
+                }
+                generator.flush();
+                // blocks until the client has taken the previous writes, no transaction is open here.
+                emitter.send(buffer.toByteArray());
+                buffer.reset();
+                cursor = page.nextCursor();
+            } while (cursor != null);
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        emitter.send(buffer.toByteArray());
+    }
+
+    /**
+     * See ArtifactController.searchArtifacts.
+     * @return One page of the matching artifacts wrapped in a Result, completed on the artifact read executor.
+     */
+    @GetMapping("/search")
+    public CompletableFuture<Result> searchArtifacts(@RequestParam String q, @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "" + ArtifactService.DEFAULT_PAGE_SIZE) int size) {
+        return CompletableFuture.supplyAsync(() -> {
+            SearchPage<ArtifactDto> artifactDtoPage = this.artifactService.searchDtos(q, page, size);
+            return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Search Success", artifactDtoPage);
+        }, this.artifactReadExecutor);
+    }
+}
@@ -0,0 +1,178 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.search.ArtifactSearchIndex;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import edu.tcu.cs.hogwartsartifactsonline.system.Chunks;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.BatchPartiallyCommittedException;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.BatchValidationException;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.ObjectNotFoundException;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.WizardRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Creates, updates and deletes artifacts in bulk, e.g., for an import.
+ * Instead of one transaction per artifact (see ArtifactService) the items are written in chunks of
+ * hogwarts.artifact.batch-chunk-size, one transaction per chunk, and within a chunk Hibernate sends the statements
+ * in JDBC batches of hibernate.jdbc.batch_size.
+ *
+ * A failure only rolls back the chunk it happened in: the chunks before it stay committed and the ones after it are not
+ * written, which is reported as a BatchPartiallyCommittedException with the number of items written. Updates and
+ * deletes clear the artifact cache in every chunk's transaction, so it is cleared after each commit, a later failure
+ * included. The methods are NOT_SUPPORTED so the chunks never join a surrounding transaction.
+ */
+@Service
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ArtifactBatchService {
+
+    private final ArtifactRepository artifactRepository;
+
+    private final WizardRepository wizardRepository;
+
+    private final IdWorker idWorker;
+
+    private final EntityManager entityManager;
+
+    private final ArtifactSearchIndex artifactSearchIndex;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache artifactCache;
+
+    private final int chunkSize;
+
+    public ArtifactBatchService(ArtifactRepository artifactRepository, WizardRepository wizardRepository, IdWorker idWorker,
+                                EntityManager entityManager, ArtifactSearchIndex artifactSearchIndex, PlatformTransactionManager transactionManager,
+                                CacheManager cacheManager, @Value("${hogwarts.artifact.batch-chunk-size}") int chunkSize) {
+        this.artifactRepository = artifactRepository;
+        this.wizardRepository = wizardRepository;
+        this.idWorker = idWorker;
+        this.entityManager = entityManager;
+        this.artifactSearchIndex = artifactSearchIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.artifactCache = cacheManager.getCache(ArtifactService.ARTIFACT_CACHE);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param newArtifacts The artifacts to create, their ids are ignored.
+     * @return The ids of the created artifacts, in the order of newArtifacts.
+     * @throws BatchPartiallyCommittedException If a chunk failed.
+     */
+    public List<String> saveAll(List<Artifact> newArtifacts) {
+        if (newArtifacts.isEmpty()) {
+            return List.of();
+        }
+        // one reservation for the whole batch instead of one IdWorker call per artifact.
+        long[] ids = this.idWorker.nextIds(newArtifacts.size());
+        List<String> savedIds = new ArrayList<>(newArtifacts.size());
+        for (int i = 0; i < newArtifacts.size(); i++) {
+            newArtifacts.get(i).setId(ids[i] + "");
+            savedIds.add(ids[i] + "");
+        }
+        inChunks(newArtifacts, chunk -> {
+            this.artifactRepository.saveAll(chunk);
+            chunk.forEach(this.artifactSearchIndex::index);
+            return chunk.size();
+        });
+        return savedIds;
+    }
+
+    /**
+     * Every id is checked before anything is written, so a batch with an unknown id changes nothing.
+     * @param updates The new name, description and imageUrl of each artifact, keyed by its id.
+     * @return The number of updated artifacts.
+     * @throws BatchPartiallyCommittedException If a chunk failed.
+     */
+    public int updateAll(List<Artifact> updates) {
+        List<String> ids = updates.stream().map(Artifact::getId).toList();
+        Set<String> existingIds = new HashSet<>(ids.size());
+        for (List<String> chunk : Chunks.of(ids, this.chunkSize)) {
+            existingIds.addAll(this.artifactRepository.findIdsByIdIn(chunk));
+        }
+        SortedMap<Integer, Map<String, String>> errors = new TreeMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (!existingIds.contains(ids.get(i))) {
+                errors.put(i, Map.of("id", new ObjectNotFoundException("artifact", ids.get(i)).getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BatchValidationException(errors);
+        }
+
+        return inChunks(updates, chunk -> {
+            Map<String, Artifact> updatesById = new HashMap<>(chunk.size());
+            chunk.forEach(update -> updatesById.put(update.getId(), update));
+            // the changes are written as batched UPDATEs by dirty checking when the chunk commits.
+            for (Artifact oldArtifact : this.artifactRepository.findAllById(updatesById.keySet())) {
+                Artifact update = updatesById.get(oldArtifact.getId());
+                oldArtifact.setName(update.getName());
+                oldArtifact.setDescription(update.getDescription());
+                oldArtifact.setImageUrl(update.getImageUrl());
+                this.artifactSearchIndex.index(oldArtifact);
+            }
+            this.artifactCache.clear(); // once the chunk commits.
+            return updatesById.size();
+        });
+    }
+
+    /**
+     * Ids that do not exist are skipped, and so are repeated ids (already deleted by then), so a batch that failed
+     * part way can be sent again as it is.
+     * @param artifactIds The ids of the artifacts to delete.
+     * @return The number of deleted artifacts.
+     * @throws BatchPartiallyCommittedException If a chunk failed.
+     */
+    public int deleteAll(List<String> artifactIds) {
+        return inChunks(artifactIds, chunk -> {
+            List<String> existingIds = this.artifactRepository.findIdsByIdIn(chunk);
+            if (existingIds.isEmpty()) {
+                return 0;
+            }
+            List<ArtifactRepository.OwnerArtifactCount> ownerCounts = this.artifactRepository.countByOwnerForIds(existingIds);
+            // one DELETE ... WHERE id IN (...) per chunk.
+            this.artifactRepository.deleteAllByIdInBatch(existingIds);
+            existingIds.forEach(this.artifactSearchIndex::remove);
+            ownerCounts.forEach(ownerCount ->
+                    this.wizardRepository.adjustNumberOfArtifacts(ownerCount.getOwnerId(), -ownerCount.getTotal().intValue()));
+            this.artifactCache.clear(); // once the chunk commits.
+            return existingIds.size();
+        });
+    }
+
+    /**
+     * Runs work on each chunk of items in its own transaction. The persistence context is cleared after each chunk
+     * so its memory does not grow with the size of the batch.
+     * @return The sum of what work returned for each chunk.
+     * @throws BatchPartiallyCommittedException If a chunk failed, the chunks after it are not run.
+     */
+    private <T> int inChunks(List<T> items, Function<List<T>, Integer> work) {
+        int total = 0;
+        int committedItems = 0;
+        for (List<T> chunk : Chunks.of(items, this.chunkSize)) {
+            try {
+                total += this.transactionTemplate.execute(status -> {
+                    int done = work.apply(chunk);
+                    this.entityManager.flush();
+                    this.entityManager.clear();
+                    return done;
+                });
+            } catch (RuntimeException ex) {
+                this.entityManager.clear();
+                throw new BatchPartiallyCommittedException(committedItems, ex);
+            }
+            committedItems += chunk.size();
+        }
+        return total;
+    }
+}
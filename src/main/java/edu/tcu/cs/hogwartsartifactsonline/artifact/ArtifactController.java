@@ -1,14 +1,32 @@
 package edu.tcu.cs.hogwartsartifactsonline.artifact;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.converter.ArtifactDtoToArtifactConverter;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.converter.ArtifactToArtifactDtoConverter;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.dto.ArtifactDto;
+import edu.tcu.cs.hogwartsartifactsonline.system.CursorPage;
 import edu.tcu.cs.hogwartsartifactsonline.system.Result;
+import edu.tcu.cs.hogwartsartifactsonline.system.SearchPage;
 import edu.tcu.cs.hogwartsartifactsonline.system.StatusCode;
+import edu.tcu.cs.hogwartsartifactsonline.system.Tagged;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.BatchTooLargeException;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.BatchValidationException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,22 +39,44 @@ public class ArtifactController {
 
     private final ArtifactDtoToArtifactConverter artifactDtoToArtifactConverter;
 
+    private final ObjectMapper objectMapper;
+
+    private final ArtifactBatchService artifactBatchService;
+
+    private final Validator validator;
+
+    private final int batchMaxItems;
+
+    private final ArtifactExportLimiter artifactExportLimiter;
+
     public ArtifactController(ArtifactService artifactService, ArtifactToArtifactDtoConverter artifactToArtifactDtoConverter,
-                              ArtifactDtoToArtifactConverter artifactDtoToArtifactConverter) {
+                              ArtifactDtoToArtifactConverter artifactDtoToArtifactConverter, ObjectMapper objectMapper,
+                              ArtifactBatchService artifactBatchService, Validator validator,
+                              @Value("${hogwarts.artifact.batch-max-items}") int batchMaxItems, ArtifactExportLimiter artifactExportLimiter) {
         this.artifactService = artifactService;
         this.artifactToArtifactDtoConverter = artifactToArtifactDtoConverter;
         this.artifactDtoToArtifactConverter = artifactDtoToArtifactConverter;
+        this.objectMapper = objectMapper;
+        this.artifactBatchService = artifactBatchService;
+        this.validator = validator;
+        this.batchMaxItems = batchMaxItems;
+        this.artifactExportLimiter = artifactExportLimiter;
     }
 
     /**
      * @param artifactId The artifact's unique identifier.
-     * @return A custom POJO that acts as a wrapper containing artifact data.
+     * @param webRequest Used to compare the client's If-None-Match header with the current ETag.
+     * @return A custom POJO that acts as a wrapper containing artifact data (or nothing along with a 304 status).
      */
     @GetMapping("/{artifactId}")
-    public Result findArtifactById(@PathVariable String artifactId) {
-
-        Artifact foundArtifact = this.artifactService.findById(artifactId);
-        ArtifactDto artifactDto = this.artifactToArtifactDtoConverter.convert(foundArtifact);
+    public Result findArtifactById(@PathVariable String artifactId, WebRequest webRequest) {
+        // the service caches the converted artifact and its ETag since this is the busiest endpoint,
+        // a cache hit answers the request (or its 304) without any query.
+        Tagged<ArtifactDto> taggedArtifactDto = this.artifactService.findTaggedDtoById(artifactId);
+        if (webRequest.checkNotModified(taggedArtifactDto.eTag())) {
+            return null;
+        }
+        ArtifactDto artifactDto = taggedArtifactDto.body();
         /*
          * note: the returned Result wrapper object is being serialized into a JSON object
          * and then returned to the user or front-end.
@@ -46,24 +86,83 @@ public class ArtifactController {
     }
 
     /**
-     *
-     * @return A custom wrapper object containing all the artifacts.
+     * Without any parameters every artifact is returned. If a size, cursor or filter is given then one page is returned along
+     * with the cursor to request the next page with.
+     * @param size The number of artifacts per page.
+     * @param cursor The nextCursor returned with the previous page.
+     * @param ownerId Only the artifacts of this wizard.
+     * @param namePrefix Only the artifacts whose name starts with this (case-sensitive).
+     * @param unowned Only the artifacts without an owner.
+     * @param webRequest Used to compare the client's If-None-Match header with the current ETag.
+     * @return A custom wrapper object containing all the artifacts or one page of artifacts (or nothing along with a 304 status).
      */
     @GetMapping
-    public Result findAllArtifacts() {
-        List<Artifact> foundArtifacts = this.artifactService.findAll();
+    public Result findAllArtifacts(@RequestParam(required = false) Integer size, @RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer ownerId, @RequestParam(required = false) String namePrefix,
+                                   @RequestParam(defaultValue = "false") boolean unowned, WebRequest webRequest) {
+        ArtifactFilter filter = new ArtifactFilter(ownerId, namePrefix, unowned);
+        if (size != null || cursor != null || !filter.isEmpty()) {
+            // converted by the service, the response is serialized after the connection has gone back to the pool.
+            // the ETag comes from the page's own rows, a page never aggregates the whole table.
+            Tagged<CursorPage<ArtifactDto>> artifactDtoPage = this.artifactService.findTaggedDtoPage(filter, cursor, size != null ? size : ArtifactService.DEFAULT_PAGE_SIZE);
+            if (webRequest.checkNotModified(artifactDtoPage.eTag())) {
+                return null;
+            }
+            return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Find Page Success", artifactDtoPage.body());
+        }
+        if (webRequest.checkNotModified(this.artifactService.findAllETag())) {
+            return null;
+        }
         /*
           * we use a Dto to prevent the JSON infinite recursion issue due to the
           * oneToMany relationship between wizard and artifacts.
          */
-        List<ArtifactDto> artifactDtos = foundArtifacts.stream()
-//                .map((foundArtifact) ->
-//                        this.artifactToArtifactDtoConverter.convert(foundArtifact))
-                .map(this.artifactToArtifactDtoConverter::convert)
-                .collect(Collectors.toList());
+        List<ArtifactDto> artifactDtos = this.artifactService.findAllDtos();
         return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Find All Success", artifactDtos);
     }
 
+    /**
+     * Ranked full-text search over the artifacts' names and descriptions.
+     * @param q The search terms, an artifact matching any of them is a hit.
+     * @param page The zero-based page number.
+     * @param size The number of artifacts per page.
+     * @return One page of the matching artifacts, best match first, along with the total number of matches.
+     */
+    @GetMapping("/search")
+    public Result searchArtifacts(@RequestParam String q, @RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "" + ArtifactService.DEFAULT_PAGE_SIZE) int size) {
+        SearchPage<ArtifactDto> artifactDtoPage = this.artifactService.searchDtos(q, page, size);
+        return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Search Success", artifactDtoPage);
+    }
+
+    /**
+     * Streams the whole catalog as newline delimited JSON (one ArtifactDto per line) for downstream jobs.
+     * Each artifact is written as soon as its row is read so the response is never held in memory. The database cursor
+     * stays open as long as the client takes to read, so only authenticated users may export (see SecurityConfiguration)
+     * and the exports running at once are capped (see ArtifactExportLimiter).
+     * @param response The response the artifacts are written to.
+     * @throws IOException If the client goes away while we are writing.
+     */
+    @GetMapping("/export")
+    public void exportArtifacts(HttpServletResponse response) throws IOException {
+        this.artifactExportLimiter.acquire();
+        try {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream outputStream = response.getOutputStream();
+            this.artifactService.exportAll(artifact -> {
+                try {
+                    outputStream.write(this.objectMapper.writeValueAsBytes(this.artifactToArtifactDtoConverter.convert(artifact)));
+                    outputStream.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            outputStream.flush();
+        } finally {
+            this.artifactExportLimiter.release();
+        }
+    }
+
     @PostMapping
     public Result addArtifact(@Valid @RequestBody ArtifactDto artifactDto) {
         Artifact newArtifact = this.artifactDtoToArtifactConverter.convert(artifactDto);
@@ -73,12 +172,61 @@ public class ArtifactController {
         return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Add Success", savedArtifactDto);
     }
 
+    /**
+     * Creates many artifacts in one request, e.g., for an import.
+     * Every item is validated first, if any is invalid nothing is saved and the errors of each item are returned.
+     *
+     * The batch endpoints write their items in chunks of hogwarts.artifact.batch-chunk-size, each chunk in a transaction
+     * of its own, so a batch is not atomic: when a chunk fails, the items before it stay written and the response is a
+     * 500 whose data.committedItems is how many items, from the start of the request, were written. Resend the items from
+     * that index on (updates and deletes may also simply be sent again as a whole).
+     * @param artifactDtos The artifacts to create.
+     * @return The ids of the created artifacts, in the order of the request.
+     */
+    @PostMapping("/batch")
+    public Result addArtifacts(@RequestBody List<ArtifactDto> artifactDtos) {
+        checkBatchSize(artifactDtos);
+        validateEach(artifactDtos, false);
+        List<Artifact> newArtifacts = artifactDtos.stream()
+                .map(this.artifactDtoToArtifactConverter::convert)
+                .collect(Collectors.toList());
+        List<String> savedIds = this.artifactBatchService.saveAll(newArtifacts);
+        return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Batch Add Success", savedIds);
+    }
+
+    /**
+     * Every id is checked first, if any is unknown nothing is updated. Written in chunks, see addArtifacts.
+     * @param artifactDtos The artifacts to update, each must have the id of an existing artifact.
+     * @return The number of updated artifacts.
+     */
+    @PutMapping("/batch")
+    public Result updateArtifacts(@RequestBody List<ArtifactDto> artifactDtos) {
+        checkBatchSize(artifactDtos);
+        validateEach(artifactDtos, true);
+        List<Artifact> updates = artifactDtos.stream()
+                .map(this.artifactDtoToArtifactConverter::convert)
+                .collect(Collectors.toList());
+        int updated = this.artifactBatchService.updateAll(updates);
+        return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Batch Update Success", updated);
+    }
+
+    /**
+     * Written in chunks, see addArtifacts.
+     * @param artifactIds The ids of the artifacts to delete, unknown ids are skipped.
+     * @return The number of deleted artifacts.
+     */
+    @DeleteMapping("/batch")
+    public Result deleteArtifacts(@RequestBody List<String> artifactIds) {
+        checkBatchSize(artifactIds);
+        int deleted = this.artifactBatchService.deleteAll(artifactIds);
+        return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Batch Delete Success", deleted);
+    }
+
     @PutMapping("/{artifactId}")
     public Result updateArtifact(@PathVariable String artifactId, @Valid @RequestBody ArtifactDto artifactDto) {
         // Artifact foundArtifact = this.artifactService.findById(artifactId);
         Artifact update = this.artifactDtoToArtifactConverter.convert(artifactDto);
-        Artifact updatedArtifact = this.artifactService.update(artifactId, update);
-        ArtifactDto updatedArtifactDto = this.artifactToArtifactDtoConverter.convert(updatedArtifact);
+        ArtifactDto updatedArtifactDto = this.artifactService.updateDto(artifactId, update);
         return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Update Success", updatedArtifactDto);
     }
 
@@ -87,4 +235,43 @@ public class ArtifactController {
         this.artifactService.delete(artifactId);
         return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Delete Success");
     }
+
+    /**
+     * A batch is validated and checked against the database as a whole before any of it is written, so its size is
+     * bounded (hogwarts.artifact.batch-max-items) to keep the memory and the time of one request bounded.
+     * @param items The items of a batch request.
+     */
+    private void checkBatchSize(List<?> items) {
+        if (items.size() > this.batchMaxItems) {
+            throw new BatchTooLargeException(items.size(), this.batchMaxItems);
+        }
+    }
+
+    /**
+     * The batch version of @Valid, the errors of all the items are collected instead of stopping at the first invalid one.
+     * @param artifactDtos The items of a batch request.
+     * @param idRequired Whether every item must have an id (updates).
+     */
+    private void validateEach(List<ArtifactDto> artifactDtos, boolean idRequired) {
+        SortedMap<Integer, Map<String, String>> errors = new TreeMap<>();
+        for (int i = 0; i < artifactDtos.size(); i++) {
+            ArtifactDto artifactDto = artifactDtos.get(i);
+            Map<String, String> fieldErrors = new HashMap<>();
+            if (artifactDto == null) {
+                fieldErrors.put("artifact", "artifact is required.");
+            } else {
+                this.validator.validate(artifactDto).forEach(violation ->
+                        fieldErrors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                if (idRequired && (artifactDto.id() == null || artifactDto.id().isBlank())) {
+                    fieldErrors.put("id", "id is required.");
+                }
+            }
+            if (!fieldErrors.isEmpty()) {
+                errors.put(i, fieldErrors);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BatchValidationException(errors);
+        }
+    }
 }
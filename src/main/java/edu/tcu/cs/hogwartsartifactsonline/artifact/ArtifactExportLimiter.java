@@ -0,0 +1,37 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps the exports of the whole catalog (GET /artifacts/export and GET /artifacts/async/all together) running at once.
+ * Each one holds a thread for as long as the client takes to read the catalog, the blocking one a database cursor as well.
+ * Beyond hogwarts.artifact.export.max-concurrent the request is rejected right away, which ExceptionHandlerAdvice
+ * turns into a 503.
+ */
+@Component
+public class ArtifactExportLimiter {
+
+    private final Semaphore permits;
+
+    public ArtifactExportLimiter(@Value("${hogwarts.artifact.export.max-concurrent}") int maxConcurrent) {
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Every successful call must be followed by exactly one release().
+     * @throws TaskRejectedException If max-concurrent exports are running already.
+     */
+    public void acquire() {
+        if (!this.permits.tryAcquire()) {
+            throw new TaskRejectedException("Too many artifact exports are running.");
+        }
+    }
+
+    public void release() {
+        this.permits.release();
+    }
+}
@@ -0,0 +1,25 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact;
+
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.InvalidFilterException;
+
+/**
+ * The filters of the artifact listing, at most one can be used at a time since each one is backed by its own index.
+ * @param ownerId Only the artifacts of this wizard.
+ * @param namePrefix Only the artifacts whose name starts with this (case-sensitive).
+ * @param unowned Only the artifacts without an owner.
+ */
+public record ArtifactFilter(Integer ownerId, String namePrefix, boolean unowned) {
+
+    public static final ArtifactFilter NONE = new ArtifactFilter(null, null, false);
+
+    public ArtifactFilter {
+        int used = (ownerId != null ? 1 : 0) + (namePrefix != null ? 1 : 0) + (unowned ? 1 : 0);
+        if (used > 1) {
+            throw new InvalidFilterException("ownerId, namePrefix and unowned");
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.ownerId == null && this.namePrefix == null && !this.unowned;
+    }
+}
@@ -1,8 +1,172 @@
 package edu.tcu.cs.hogwartsartifactsonline.artifact;
 
+import jakarta.persistence.QueryHint;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.Wizard;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface ArtifactRepository extends JpaRepository<Artifact, String> {
+
+    /**
+     * The list endpoints always convert the owner as well, so the owner is joined into the same select
+     * instead of being loaded with one extra query per artifact.
+     * @return All the artifacts with their owners.
+     */
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Artifact> findAll();
+
+    /**
+     * First page of the keyset pagination. Ids come from the IdWorker so ordering by id is also ordering by creation time.
+     * @param limit The maximum number of rows to return.
+     * @return Artifacts ordered by id.
+     */
+    @EntityGraph(attributePaths = "owner")
+    List<Artifact> findAllByOrderByIdAsc(Limit limit);
+
+    /**
+     * Every following page seeks past the last id of the previous page using the primary key index,
+     * so the cost of a page does not grow with how deep the client has paged (unlike an OFFSET).
+     * @param id The id of the last artifact of the previous page.
+     * @param limit The maximum number of rows to return.
+     * @return Artifacts with an id after the given one, ordered by id.
+     */
+    @EntityGraph(attributePaths = "owner")
+    List<Artifact> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    /**
+     * A page of one wizard's artifacts, a seek on idx_artifact_owner_id.
+     * The first page passes "" as the id since every id sorts after it.
+     * @param ownerId The wizard's id.
+     * @param id The id of the last artifact of the previous page.
+     * @param limit The maximum number of rows to return.
+     * @return The wizard's artifacts with an id after the given one, ordered by id.
+     */
+    @EntityGraph(attributePaths = "owner")
+    List<Artifact> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Integer ownerId, String id, Limit limit);
+
+    /**
+     * A page of the artifacts without an owner, also a seek on idx_artifact_owner_id.
+     */
+    List<Artifact> findByOwnerIsNullAndIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    /**
+     * A page of the artifacts whose name starts with the prefix (case-sensitive so idx_artifact_name can be used,
+     * wildcards in the prefix are escaped). Only the matching rows are sorted by id.
+     * @param namePrefix The start of the name.
+     * @param id The id of the last artifact of the previous page.
+     * @param limit The maximum number of rows to return.
+     * @return The matching artifacts with an id after the given one, ordered by id.
+     */
+    @EntityGraph(attributePaths = "owner")
+    List<Artifact> findByNameStartingWithAndIdGreaterThanOrderByIdAsc(String namePrefix, String id, Limit limit);
+
+    /**
+     * Forward-only cursor over every artifact, rows are pulled from the database in chunks of the fetch size
+     * instead of being loaded all at once. Must be consumed inside a transaction and closed afterwards.
+     * The entities are loaded read-only so Hibernate does not keep a snapshot copy of each row for dirty checking.
+     * @return A stream of all the artifacts.
+     */
+    @EntityGraph(attributePaths = "owner")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Artifact> streamAllBy();
+
+    /**
+     * Only the columns the search index needs, read the same forward-only way as streamAllBy.
+     * @return A stream of the id, name and description of every artifact.
+     */
+    @Query("select a.id as id, a.name as name, a.description as description from Artifact a")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<SearchableArtifact> streamSearchableBy();
+
+    /**
+     * @param ids The artifact ids, e.g., one page of search results.
+     * @return The artifacts with their owners, in no particular order.
+     */
+    @EntityGraph(attributePaths = "owner")
+    List<Artifact> findByIdIn(Collection<String> ids);
+
+    /**
+     * Changes whenever an artifact is added (count and last id, since ids only grow), updated (version sum),
+     * deleted (count) or one of the owners is updated (owner version sum).
+     * @return A fingerprint of the whole artifact table and its owners.
+     */
+    @Query("select count(a) as total, coalesce(sum(a.version), 0L) as versionSum, max(a.id) as lastId, coalesce(sum(o.version), 0L) as ownerVersionSum " +
+            "from Artifact a left join a.owner o")
+    ArtifactsVersion findArtifactsVersion();
+
+    /**
+     * @param ids The artifact ids to look for.
+     * @return Those of the given ids that exist, read from the primary key index only.
+     */
+    @Query("select a.id from Artifact a where a.id in :ids")
+    List<String> findIdsByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * Used to adjust the owners' numberOfArtifacts before the given artifacts are deleted in bulk.
+     * @param ids The artifact ids.
+     * @return The number of the given artifacts per owner, unowned artifacts are left out.
+     */
+    @Query("select o.id as ownerId, count(a) as total from Artifact a join a.owner o where a.id in :ids group by o.id")
+    List<OwnerArtifactCount> countByOwnerForIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * Moves the given artifacts to a new owner in one statement, no artifact or collection is loaded.
+     * Artifacts that already belong to the owner are left alone.
+     * @param owner The new owner.
+     * @param ids The artifact ids.
+     * @return The number of artifacts that changed owner.
+     */
+    @Modifying
+    @Query("update versioned Artifact a set a.owner = :owner where a.id in :ids and (a.owner is null or a.owner <> :owner)")
+    int assignOwner(@Param("owner") Wizard owner, @Param("ids") Collection<String> ids);
+
+    /**
+     * Moves every artifact of one wizard to another in one statement.
+     * @return The number of artifacts that changed owner.
+     */
+    @Modifying
+    @Query("update versioned Artifact a set a.owner = :newOwner where a.owner = :oldOwner")
+    int transferOwner(@Param("oldOwner") Wizard oldOwner, @Param("newOwner") Wizard newOwner);
+
+    /**
+     * Takes every artifact away from the given wizard in one statement, e.g., before the wizard is deleted.
+     * @return The number of artifacts that lost their owner.
+     */
+    @Modifying
+    @Query("update versioned Artifact a set a.owner = null where a.owner = :owner")
+    int unassignOwner(@Param("owner") Wizard owner);
+
+    interface ArtifactsVersion {
+        Long getTotal();
+        Long getVersionSum();
+        String getLastId();
+        Long getOwnerVersionSum();
+    }
+
+    interface SearchableArtifact {
+        String getId();
+        String getName();
+        String getDescription();
+    }
+
+    interface OwnerArtifactCount {
+        Integer getOwnerId();
+        Long getTotal();
+    }
 }
@@ -1,28 +1,88 @@
 package edu.tcu.cs.hogwartsartifactsonline.artifact;
 
+import edu.tcu.cs.hogwartsartifactsonline.artifact.converter.ArtifactToArtifactDtoConverter;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.dto.ArtifactDto;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.search.ArtifactSearchIndex;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import edu.tcu.cs.hogwartsartifactsonline.system.CursorPage;
+import edu.tcu.cs.hogwartsartifactsonline.system.ETags;
+import edu.tcu.cs.hogwartsartifactsonline.system.MetricsConfiguration;
+import edu.tcu.cs.hogwartsartifactsonline.system.SearchPage;
+import edu.tcu.cs.hogwartsartifactsonline.system.Tagged;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.InvalidPageException;
 import edu.tcu.cs.hogwartsartifactsonline.system.exception.ObjectNotFoundException;
-import jakarta.transaction.Transactional;
+import edu.tcu.cs.hogwartsartifactsonline.system.jdbc.ReadYourWrites;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.Wizard;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.WizardRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * The transactional annotation makes database transactions a smoother process (will update this documentation).
+ *
+ * Open-Session-In-View is off (see spring.jpa.open-in-view), so an artifact's lazy owner can only be read inside
+ * one of these methods. The read endpoints use the ...Dto methods, which convert the artifacts before their read-only
+ * transaction ends and the connection goes back to the pool, the response is serialized without holding one.
+ *
+ * Query methods are read-only transactions: Hibernate loads their entities read-only (no snapshot copies for dirty
+ * checking) and never flushes, and with replicas configured they run on a replica (see ReplicaRoutingDataSource).
  */
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 @Service
 @Transactional
 public class ArtifactService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * How deep search results can be paged, the index keeps (page + 1) * size hits while ranking.
+     */
+    public static final int MAX_SEARCH_RESULTS = 10_000;
+
+    /**
+     * Converted ArtifactDtos by artifact id, see spring.cache in application.yml for its size and time to live.
+     */
+    public static final String ARTIFACT_CACHE = "artifacts";
+
     private final ArtifactRepository artifactRepository;
 
     private final IdWorker idWorker;
 
-    public ArtifactService(ArtifactRepository artifactRepository, IdWorker idWorker) {
+    private final EntityManager entityManager;
+
+    private final ArtifactToArtifactDtoConverter artifactToArtifactDtoConverter;
+
+    private final ArtifactSearchIndex artifactSearchIndex;
+
+    private final WizardRepository wizardRepository;
+
+    public ArtifactService(ArtifactRepository artifactRepository, IdWorker idWorker, EntityManager entityManager,
+                           ArtifactToArtifactDtoConverter artifactToArtifactDtoConverter, ArtifactSearchIndex artifactSearchIndex,
+                           WizardRepository wizardRepository) {
         this.artifactRepository = artifactRepository;
         this.idWorker = idWorker;
+        this.entityManager = entityManager;
+        this.artifactToArtifactDtoConverter = artifactToArtifactDtoConverter;
+        this.artifactSearchIndex = artifactSearchIndex;
+        this.wizardRepository = wizardRepository;
     }
 
+    @Transactional(readOnly = true)
     public Artifact findById(String artifactId) {
 //        Optional<Artifact> optional = artifactRepository.findById(artifactId);
 //        if(optional.isEmpty()) throw new RuntimeException("can't find artifact");
@@ -41,17 +101,200 @@ public class ArtifactService {
                 .orElseThrow(() -> new ObjectNotFoundException("artifact", artifactId));
     }
 
+    /**
+     * Read-through cache in front of findById. Only found artifacts are cached (a not found exception is not a result),
+     * writes to an artifact or its owner evict the entry. A cache miss reads from the primary, not a replica,
+     * so an evicted artifact is not cached again as it was before the write.
+     * The ETag is cached with the artifact, so a cache hit (conditional or not) runs no query at all.
+     * @param artifactId The artifact's unique identifier.
+     * @return The converted artifact and its ETag, computed from the artifact's and its owner's versions.
+     */
+    @Cacheable(cacheNames = ARTIFACT_CACHE, key = "#artifactId")
+    @Transactional(readOnly = true)
+    public Tagged<ArtifactDto> findTaggedDtoById(String artifactId) {
+        return ReadYourWrites.fromPrimary(() -> {
+            Artifact artifact = this.findById(artifactId);
+            return new Tagged<>(this.artifactToArtifactDtoConverter.convert(artifact), eTagOf(artifact));
+        });
+    }
+
+    /**
+     * @return The ETag of the whole artifact listing, computed from the version columns only. It aggregates the whole
+     * table, so the pages use the ETag of their own rows instead (see findTaggedDtoPage).
+     */
+    @Transactional(readOnly = true)
+    public String findAllETag() {
+        ArtifactRepository.ArtifactsVersion version = this.artifactRepository.findArtifactsVersion();
+        return ETags.of(version.getTotal(), version.getVersionSum(), version.getLastId(), version.getOwnerVersionSum());
+    }
+
+    @Transactional(readOnly = true)
     public List<Artifact> findAll() {
         return this.artifactRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<ArtifactDto> findAllDtos() {
+        return this.artifactRepository.findAll().stream()
+                .map(this.artifactToArtifactDtoConverter::convert)
+                .toList();
+    }
+
+    /**
+     * Keyset pagination over the artifacts ordered by id.
+     * @param cursor The nextCursor of the previous page or null for the first page.
+     * @param size The requested page size, it is clamped between 1 and MAX_PAGE_SIZE.
+     * @return One page of artifacts and the cursor of the next page (null if this is the last page).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Artifact> findPage(String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // fetch one extra row to find out if there is a next page without running a count query.
+        Limit limit = Limit.of(pageSize + 1);
+        List<Artifact> artifacts = cursor == null
+                ? this.artifactRepository.findAllByOrderByIdAsc(limit)
+                : this.artifactRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decodeCursor(cursor), limit);
+        return toCursorPage(artifacts, pageSize);
+    }
+
+    /**
+     * Keyset pagination over the artifacts matching the filter, ordered by id. Each filter has its own index
+     * (see Artifact) so a page costs the same no matter how many artifacts there are.
+     * @param filter At most one filter, without any this is the same as findPage(cursor, size).
+     * @param cursor The nextCursor of the previous page or null for the first page.
+     * @param size The requested page size, it is clamped between 1 and MAX_PAGE_SIZE.
+     * @return One page of the matching artifacts and the cursor of the next page (null if this is the last page).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Artifact> findPage(ArtifactFilter filter, String cursor, int size) {
+        if (filter.isEmpty()) {
+            return findPage(cursor, size);
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Limit limit = Limit.of(pageSize + 1);
+        String afterId = cursor == null ? "" : CursorPage.decodeCursor(cursor); // every id sorts after "".
+        List<Artifact> artifacts;
+        if (filter.ownerId() != null) {
+            artifacts = this.artifactRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(filter.ownerId(), afterId, limit);
+        } else if (filter.namePrefix() != null) {
+            artifacts = this.artifactRepository.findByNameStartingWithAndIdGreaterThanOrderByIdAsc(filter.namePrefix(), afterId, limit);
+        } else {
+            artifacts = this.artifactRepository.findByOwnerIsNullAndIdGreaterThanOrderByIdAsc(afterId, limit);
+        }
+        return toCursorPage(artifacts, pageSize);
+    }
+
+    /**
+     * findPage(filter, cursor, size) converted, see findPage for the parameters.
+     * @return The page and its ETag, a digest of the versions of the page's artifacts and owners and of the next cursor,
+     * so a conditional request costs the page's own query and nothing proportional to the table.
+     */
+    @Transactional(readOnly = true)
+    public Tagged<CursorPage<ArtifactDto>> findTaggedDtoPage(ArtifactFilter filter, String cursor, int size) {
+        CursorPage<Artifact> page = findPage(filter, cursor, size);
+        Object[] versions = new Object[page.content().size() + 1];
+        for (int i = 0; i < page.content().size(); i++) {
+            Artifact artifact = page.content().get(i);
+            versions[i] = artifact.getId() + ":" + eTagOf(artifact);
+        }
+        versions[versions.length - 1] = page.nextCursor();
+        return new Tagged<>(page.map(this.artifactToArtifactDtoConverter::convert), ETags.digest(versions));
+    }
+
+    /**
+     * findPage(cursor, size) converted, in a transaction of its own. A caller walking the whole catalog page by page
+     * (see ArtifactAsyncController.findAllArtifacts) only holds a connection while a page is read.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ArtifactDto> findDtoPage(String cursor, int size) {
+        return findPage(cursor, size).map(this.artifactToArtifactDtoConverter::convert);
+    }
+
+    /**
+     * An ArtifactDto embeds its owner, so the owner's version is part of the artifact's ETag.
+     */
+    private static String eTagOf(Artifact artifact) {
+        Wizard owner = artifact.getOwner();
+        return owner == null
+                ? ETags.of(artifact.getVersion(), null, null)
+                : ETags.of(artifact.getVersion(), owner.getId(), owner.getVersion());
+    }
+
+    /**
+     * @param artifacts Up to pageSize + 1 artifacts, the extra one only tells us there is a next page.
+     */
+    private static CursorPage<Artifact> toCursorPage(List<Artifact> artifacts, int pageSize) {
+        if (artifacts.size() <= pageSize) {
+            return new CursorPage<>(artifacts, null);
+        }
+        List<Artifact> page = artifacts.subList(0, pageSize);
+        return new CursorPage<>(page, CursorPage.encodeCursor(page.get(pageSize - 1).getId()));
+    }
+
+    /**
+     * Full-text search over the names and descriptions, see ArtifactSearchIndex.
+     * The index ranks the matches, only the artifacts of the requested page are loaded from the database.
+     * @param query Free text.
+     * @param page The zero-based page number.
+     * @param size The requested page size, it is clamped between 1 and MAX_PAGE_SIZE.
+     * @return One page of the matching artifacts, best match first. Its totalHits stops counting at
+     * ArtifactSearchIndex.TOTAL_HITS_THRESHOLD (MAX_SEARCH_RESULTS), the deepest any page can go.
+     * @throws InvalidPageException If the page ends beyond the first MAX_SEARCH_RESULTS results.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<Artifact> search(String query, int page, int size) {
+        int pageNumber = Math.max(page, 0);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if ((pageNumber + 1L) * pageSize > MAX_SEARCH_RESULTS) {
+            throw new InvalidPageException(pageNumber, pageSize, MAX_SEARCH_RESULTS);
+        }
+        ArtifactSearchIndex.Hits hits = this.artifactSearchIndex.search(query, pageNumber, pageSize);
+        if (hits.artifactIds().isEmpty()) {
+            return new SearchPage<>(List.of(), pageNumber, pageSize, hits.total());
+        }
+        Map<String, Artifact> artifactsById = this.artifactRepository.findByIdIn(hits.artifactIds()).stream()
+                .collect(Collectors.toMap(Artifact::getId, Function.identity()));
+        List<Artifact> ranked = hits.artifactIds().stream()
+                .map(artifactsById::get)
+                .filter(Objects::nonNull) // deleted since the search, the index catches up once the delete commits.
+                .toList();
+        return new SearchPage<>(ranked, pageNumber, pageSize, hits.total());
+    }
+
+    /**
+     * search(query, page, size) converted, see search for the parameters.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<ArtifactDto> searchDtos(String query, int page, int size) {
+        return search(query, page, size).map(this.artifactToArtifactDtoConverter::convert);
+    }
+
+    /**
+     * Hands every artifact to the consumer one at a time as the rows arrive from the database.
+     * Each artifact is detached once the consumer is done with it so the persistence context does not grow with
+     * the size of the catalog.
+     * @param consumer Called once per artifact, e.g., to write the artifact to the response.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Artifact> consumer) {
+        try (Stream<Artifact> artifacts = this.artifactRepository.streamAllBy()) {
+            artifacts.forEach(artifact -> {
+                consumer.accept(artifact);
+                this.entityManager.detach(artifact);
+            });
+        }
+    }
+
     public Artifact save(Artifact newArtifact) {
         // server side's responsibility to generate the id
         // Twitter Snowflake Algorithm to assign id.
         newArtifact.setId(idWorker.nextId() + ""); // string concatenation to convert from long to string.
-        return this.artifactRepository.save(newArtifact);
+        Artifact savedArtifact = this.artifactRepository.save(newArtifact);
+        this.artifactSearchIndex.index(savedArtifact);
+        return savedArtifact;
     }
 
+    @CacheEvict(cacheNames = ARTIFACT_CACHE, key = "#artifactId")
     public Artifact update(String artifactId, Artifact update) {
         /*
          * use of a fluent interface
@@ -71,16 +314,36 @@ public class ArtifactService {
                     oldArtifact.setName(update.getName());
                     oldArtifact.setDescription(update.getDescription());
                     oldArtifact.setImageUrl(update.getImageUrl());
-                    return this.artifactRepository.save(oldArtifact);
+                    Artifact updatedArtifact = this.artifactRepository.save(oldArtifact);
+                    this.artifactSearchIndex.index(updatedArtifact);
+                    return updatedArtifact;
                 })
                 .orElseThrow(() -> new ObjectNotFoundException("artifact", artifactId));
     }
 
+    /**
+     * update(artifactId, update) converted before the transaction ends, the owner is lazy.
+     */
+    @CacheEvict(cacheNames = ARTIFACT_CACHE, key = "#artifactId")
+    public ArtifactDto updateDto(String artifactId, Artifact update) {
+        return this.artifactToArtifactDtoConverter.convert(update(artifactId, update));
+    }
+
+    /**
+     * Lowers the owner's numberOfArtifacts in the same transaction, like ArtifactBatchService.deleteAll. That also
+     * changes the owner's version, which is part of the ETag of every artifact it owns, hence all entries are evicted.
+     */
+    @CacheEvict(cacheNames = ARTIFACT_CACHE, allEntries = true)
     public void delete(String artifactId) {
-        this.artifactRepository.findById(artifactId)
+        Artifact artifact = this.artifactRepository.findById(artifactId)
                 .orElseThrow(() ->
                         new ObjectNotFoundException("artifact", artifactId)
                 );
+        Integer ownerId = artifact.getOwner() == null ? null : artifact.getOwner().getId(); // the id of a lazy owner is known without loading it.
         this.artifactRepository.deleteById(artifactId);
+        if (ownerId != null) {
+            this.wizardRepository.adjustNumberOfArtifacts(ownerId, -1);
+        }
+        this.artifactSearchIndex.remove(artifactId);
     }
 }
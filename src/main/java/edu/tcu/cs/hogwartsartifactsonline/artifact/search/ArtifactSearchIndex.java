@@ -0,0 +1,583 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact.search;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.Artifact;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.ArtifactRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over the name and description of every artifact, ranked with BM25.
+ * It is built from the database once the application is ready and then kept up to date by the services that write
+ * artifacts (ArtifactService, ArtifactBatchService). Changes are applied after the transaction commits so a rolled back
+ * write never shows up in the results.
+ *
+ * Every instance keeps an index of its own and only sees the writes made through it: with several instances, an artifact
+ * created or changed through another one is missing or stale here until this instance restarts (ArtifactService.search
+ * does drop the hits deleted elsewhere, it loads the page from the database). Run a single instance, or restart the
+ * others after bulk changes, as long as search has to see every write right away.
+ *
+ * A search only touches the postings of the query's terms, it never scans the artifact table. Artifacts are numbered
+ * (doc ids) and the postings are sorted arrays of doc ids and frequencies, walked one artifact at a time with MaxScore:
+ * once TOTAL_HITS_THRESHOLD matches were counted and the requested page is full, the terms whose best possible scores
+ * together can't beat the worst hit kept are no longer walked, only looked up for the artifacts the other terms match.
+ */
+@Component
+public class ArtifactSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Matches are counted up to this many, a query matching more reports this many. It is ArtifactService.MAX_SEARCH_RESULTS,
+     * no page beyond it can be requested anyway.
+     */
+    public static final int TOTAL_HITS_THRESHOLD = 10_000;
+
+    /**
+     * A term in the name counts as much as this many occurrences in the description.
+     */
+    private static final int NAME_WEIGHT = 3;
+
+    // The usual BM25 parameters: term frequency saturation and document length normalization.
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    /**
+     * The doc ids of deleted and re-indexed artifacts are reclaimed once they outnumber the live ones (and are at least
+     * this many), renumbering is a pass over every posting.
+     */
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private final ArtifactRepository artifactRepository;
+
+    private final int totalHitsThreshold;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * term -> the doc ids of the artifacts containing it.
+     */
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    /**
+     * artifact id -> its doc id and terms, needed to take an artifact's old terms out of the postings when it changes.
+     */
+    private final Map<String, Document> documents = new HashMap<>();
+
+    /**
+     * doc id -> artifact id, null once the artifact is deleted or re-indexed (it gets a new doc id). Doc ids are handed out
+     * in increasing order, so a posting list stays sorted by only ever appending to it.
+     */
+    private String[] artifactIds = new String[1024];
+
+    /**
+     * doc id -> weighted number of terms.
+     */
+    private int[] lengths = new int[1024];
+
+    private int nextDoc;
+
+    private int deleted;
+
+    private long totalLength;
+
+    public ArtifactSearchIndex(ArtifactRepository artifactRepository) {
+        this(artifactRepository, TOTAL_HITS_THRESHOLD);
+    }
+
+    ArtifactSearchIndex(ArtifactRepository artifactRepository, int totalHitsThreshold) {
+        this.artifactRepository = artifactRepository;
+        this.totalHitsThreshold = totalHitsThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        this.lock.writeLock().lock();
+        try (Stream<ArtifactRepository.SearchableArtifact> artifacts = this.artifactRepository.streamSearchableBy()) {
+            this.postings.clear();
+            this.documents.clear();
+            Arrays.fill(this.artifactIds, 0, this.nextDoc, null);
+            this.nextDoc = 0;
+            this.deleted = 0;
+            this.totalLength = 0;
+            artifacts.forEach(artifact -> put(artifact.getId(), artifact.getName(), artifact.getDescription()));
+            LOGGER.info("Indexed {} artifacts ({} terms) for search.", this.documents.size(), this.postings.size());
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the artifact or replaces what was indexed for it, once the current transaction (if any) commits.
+     * @param artifact The saved or updated artifact.
+     */
+    public void index(Artifact artifact) {
+        String artifactId = artifact.getId();
+        String name = artifact.getName();
+        String description = artifact.getDescription();
+        afterCommit(() -> {
+            this.lock.writeLock().lock();
+            try {
+                put(artifactId, name, description);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Takes the artifact out of the index, once the current transaction (if any) commits.
+     * @param artifactId The deleted artifact's id.
+     */
+    public void remove(String artifactId) {
+        afterCommit(() -> {
+            this.lock.writeLock().lock();
+            try {
+                delete(artifactId);
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Artifacts matching any of the query's terms, the ones matching more (and rarer) terms rank higher.
+     * Only the top (page + 1) * size hits are kept while ranking.
+     * @param query Free text, it is tokenized the same way the artifacts are.
+     * @param page The zero-based page number.
+     * @param size The page size.
+     * @return The ids of the artifacts on the requested page, best match first, and the total number of matches
+     * (at most TOTAL_HITS_THRESHOLD).
+     */
+    public Hits search(String query, int page, int size) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        this.lock.readLock().lock();
+        try {
+            int documentCount = this.documents.size();
+            List<Cursor> cursors = new ArrayList<>();
+            for (String term : terms) {
+                Postings termPostings = this.postings.get(term);
+                if (termPostings != null) {
+                    double idf = Math.log(1 + (documentCount - termPostings.live + 0.5) / (termPostings.live + 0.5));
+                    cursors.add(new Cursor(termPostings, idf));
+                }
+            }
+            if (cursors.isEmpty()) {
+                return new Hits(List.of(), 0);
+            }
+            return rank(cursors, (double) this.totalLength / documentCount, page, size);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.documents.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * MaxScore over the cursors of the query's terms. Must hold the read lock.
+     */
+    private Hits rank(List<Cursor> cursors, double averageLength, int page, int size) {
+        // a long, callers bound the page (ArtifactService.MAX_SEARCH_RESULTS) but the heap must not trust them.
+        long keep = (page + 1L) * size;
+        TopHits best = new TopHits((int) Math.min(keep, this.documents.size()));
+        if (best.capacity == 0) {
+            return new Hits(List.of(), 0);
+        }
+        // lowest upper bound first, the terms that can't get a hit into the page on their own are always a prefix.
+        cursors.sort(Comparator.comparingDouble(Cursor::maxScore));
+        int termCount = cursors.size();
+        double[] maxScoreSums = new double[termCount];
+        for (int i = 0; i < termCount; i++) {
+            maxScoreSums[i] = (i == 0 ? 0 : maxScoreSums[i - 1]) + cursors.get(i).maxScore();
+        }
+        double lengthBase = K1 * (1 - B);
+        double lengthFactor = K1 * B / averageLength;
+        // each term's part of the score, added up in the same order whichever terms were walked,
+        // so pruning never changes a score in its last bits (and with it the order of near ties).
+        double[] contributions = new double[termCount];
+
+        long total = 0;
+        // the score a hit must beat, only once the matches are no longer counted and the page is full.
+        double threshold = Double.NEGATIVE_INFINITY;
+        // the cursors before it are the non-essential terms: they are only looked up, never walked.
+        int firstEssential = 0;
+        while (firstEssential < termCount) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < termCount; i++) {
+                doc = Math.min(doc, cursors.get(i).doc());
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            Arrays.fill(contributions, 0);
+            double score = 0;
+            for (int i = firstEssential; i < termCount; i++) {
+                Cursor cursor = cursors.get(i);
+                if (cursor.doc() == doc) {
+                    contributions[i] = cursor.score(this.lengths[doc], lengthBase, lengthFactor);
+                    score += contributions[i];
+                    cursor.next();
+                }
+            }
+            if (this.artifactIds[doc] == null) {
+                continue; // deleted or re-indexed since.
+            }
+            int scored = firstEssential;
+            for (; scored > 0 && score + maxScoreSums[scored - 1] >= threshold; scored--) {
+                Cursor cursor = cursors.get(scored - 1);
+                if (cursor.advanceTo(doc)) {
+                    contributions[scored - 1] = cursor.score(this.lengths[doc], lengthBase, lengthFactor);
+                    score += contributions[scored - 1];
+                }
+            }
+            if (scored > 0) {
+                continue; // even the best scores of the remaining terms can't get it into the page.
+            }
+            score = 0;
+            for (double contribution : contributions) {
+                score += contribution;
+            }
+            best.offer(doc, score);
+            if (total < this.totalHitsThreshold) {
+                total++;
+            } else if (best.isFull()) {
+                threshold = best.worstScore();
+                // strictly below: a hit scoring as much as the worst one may still win on its artifact id.
+                while (firstEssential < termCount && maxScoreSums[firstEssential] < threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        String[] ranked = new String[best.size];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = this.artifactIds[best.poll()];
+        }
+        return new Hits(Arrays.stream(ranked).skip((long) page * size).toList(), total);
+    }
+
+    /**
+     * Must hold the write lock.
+     */
+    private void put(String artifactId, String name, String description) {
+        delete(artifactId);
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(name).forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(description).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        int doc = this.nextDoc++;
+        if (doc == this.artifactIds.length) {
+            this.artifactIds = Arrays.copyOf(this.artifactIds, doc * 2);
+            this.lengths = Arrays.copyOf(this.lengths, doc * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            this.postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        this.artifactIds[doc] = artifactId;
+        this.lengths[doc] = length;
+        this.documents.put(artifactId, new Document(doc, frequencies.keySet(), length));
+        this.totalLength += length;
+    }
+
+    /**
+     * The doc id is only marked deleted, searches skip it until the next compaction. Must hold the write lock.
+     */
+    private void delete(String artifactId) {
+        Document document = this.documents.remove(artifactId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Postings termPostings = this.postings.get(term);
+            termPostings.live--;
+            if (termPostings.live == 0) {
+                this.postings.remove(term);
+            }
+        }
+        this.artifactIds[document.doc()] = null;
+        this.totalLength -= document.length();
+        this.deleted++;
+        if (this.deleted >= MIN_DELETED_TO_COMPACT && this.deleted > this.documents.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Renumbers the live artifacts from 0 in the same order, so every posting list stays sorted.
+     * Must hold the write lock.
+     */
+    private void compact() {
+        int[] newDocs = new int[this.nextDoc];
+        int live = 0;
+        for (int doc = 0; doc < this.nextDoc; doc++) {
+            if (this.artifactIds[doc] == null) {
+                newDocs[doc] = -1;
+            } else {
+                newDocs[doc] = live;
+                this.artifactIds[live] = this.artifactIds[doc];
+                this.lengths[live] = this.lengths[doc];
+                live++;
+            }
+        }
+        Arrays.fill(this.artifactIds, live, this.nextDoc, null);
+        this.postings.values().forEach(termPostings -> termPostings.renumber(newDocs));
+        this.documents.replaceAll((artifactId, document) -> new Document(newDocs[document.doc()], document.terms(), document.length()));
+        this.nextDoc = live;
+        this.deleted = 0;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private record Document(int doc, Set<String> terms, int length) {
+    }
+
+    /**
+     * The artifacts containing a term, including the deleted ones until the next compaction.
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+
+        private int[] frequencies = new int[4];
+
+        private int size;
+
+        /**
+         * The number of live artifacts containing the term, its document frequency.
+         */
+        private int live;
+
+        /**
+         * Only lowered when compacting, an upper bound is all MaxScore needs.
+         */
+        private int maxFrequency;
+
+        private void add(int doc, int frequency) {
+            if (this.size == this.docs.length) {
+                this.docs = Arrays.copyOf(this.docs, this.size * 2);
+                this.frequencies = Arrays.copyOf(this.frequencies, this.size * 2);
+            }
+            this.docs[this.size] = doc;
+            this.frequencies[this.size] = frequency;
+            this.size++;
+            this.live++;
+            this.maxFrequency = Math.max(this.maxFrequency, frequency);
+        }
+
+        private void renumber(int[] newDocs) {
+            int kept = 0;
+            this.maxFrequency = 0;
+            for (int i = 0; i < this.size; i++) {
+                int doc = newDocs[this.docs[i]];
+                if (doc >= 0) {
+                    this.docs[kept] = doc;
+                    this.frequencies[kept] = this.frequencies[i];
+                    this.maxFrequency = Math.max(this.maxFrequency, this.frequencies[i]);
+                    kept++;
+                }
+            }
+            this.size = kept;
+        }
+    }
+
+    /**
+     * A search's position in one term's postings.
+     */
+    private static final class Cursor {
+
+        private final Postings postings;
+
+        private final double idf;
+
+        /**
+         * The best score the term can add to a hit: BM25 grows with the frequency and is highest for the shortest artifacts.
+         */
+        private final double maxScore;
+
+        private int position;
+
+        private Cursor(Postings postings, double idf) {
+            this.postings = postings;
+            this.idf = idf;
+            this.maxScore = idf * postings.maxFrequency * (K1 + 1) / (postings.maxFrequency + K1 * (1 - B));
+        }
+
+        private double maxScore() {
+            return this.maxScore;
+        }
+
+        /**
+         * @return The doc id the cursor is on, Integer.MAX_VALUE once it is past the last one.
+         */
+        private int doc() {
+            return this.position < this.postings.size ? this.postings.docs[this.position] : Integer.MAX_VALUE;
+        }
+
+        private void next() {
+            this.position++;
+        }
+
+        /**
+         * Moves to the first doc id not below the target (a binary search, the cursor never moves back).
+         * @return Whether the term occurs in the target.
+         */
+        private boolean advanceTo(int target) {
+            if (this.position < this.postings.size && this.postings.docs[this.position] < target) {
+                int found = Arrays.binarySearch(this.postings.docs, this.position, this.postings.size, target);
+                this.position = found >= 0 ? found : -found - 1;
+            }
+            return this.position < this.postings.size && this.postings.docs[this.position] == target;
+        }
+
+        private double score(int length, double lengthBase, double lengthFactor) {
+            int frequency = this.postings.frequencies[this.position];
+            return this.idf * frequency * (K1 + 1) / (frequency + lengthBase + lengthFactor * length);
+        }
+    }
+
+    /**
+     * Min-heap of the best hits seen so far by doc id, the worst of them is on top and is the one pushed out.
+     * Equal scores rank by artifact id, the smaller one first.
+     */
+    private final class TopHits {
+
+        private final int capacity;
+
+        private final int[] docs;
+
+        private final double[] scores;
+
+        private int size;
+
+        private TopHits(int capacity) {
+            this.capacity = capacity;
+            this.docs = new int[capacity];
+            this.scores = new double[capacity];
+        }
+
+        private boolean isFull() {
+            return this.size == this.capacity;
+        }
+
+        private double worstScore() {
+            return this.scores[0];
+        }
+
+        private void offer(int doc, double score) {
+            if (this.size < this.capacity) {
+                this.docs[this.size] = doc;
+                this.scores[this.size] = score;
+                siftUp(this.size++);
+            } else if (ranksBelow(this.docs[0], this.scores[0], doc, score)) {
+                this.docs[0] = doc;
+                this.scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * @return The doc id of the worst hit, taken out of the heap.
+         */
+        private int poll() {
+            int worst = this.docs[0];
+            this.size--;
+            this.docs[0] = this.docs[this.size];
+            this.scores[0] = this.scores[this.size];
+            siftDown(0);
+            return worst;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!ranksBelow(this.docs[index], this.scores[index], this.docs[parent], this.scores[parent])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < this.size; child++) {
+                    if (ranksBelow(this.docs[child], this.scores[child], this.docs[worst], this.scores[worst])) {
+                        worst = child;
+                    }
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        private boolean ranksBelow(int doc, double score, int otherDoc, double otherScore) {
+            if (score != otherScore) {
+                return score < otherScore;
+            }
+            return ArtifactSearchIndex.this.artifactIds[doc].compareTo(ArtifactSearchIndex.this.artifactIds[otherDoc]) > 0;
+        }
+
+        private void swap(int i, int j) {
+            int doc = this.docs[i];
+            this.docs[i] = this.docs[j];
+            this.docs[j] = doc;
+            double score = this.scores[i];
+            this.scores[i] = this.scores[j];
+            this.scores[j] = score;
+        }
+    }
+
+    /**
+     * @param artifactIds The ids on the requested page, best match first.
+     * @param total The number of artifacts that matched, at most TOTAL_HITS_THRESHOLD.
+     */
+    public record Hits(List<String> artifactIds, long total) {
+    }
+}
@@ -3,10 +3,20 @@ package edu.tcu.cs.hogwartsartifactsonline.artifact.utils;
 import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
- * This piece of code is from the Internet. The quality is unknown.
- * Only for demoing purpose. Use with caution!
+ * Twitter Snowflake id generator: 41 bits of milliseconds since twepoch, 5 bits of datacenter id, 5 bits of worker id
+ * and a 12 bit sequence within the millisecond.
+ *
+ * The last timestamp and sequence are packed into one AtomicLong that is advanced with compare-and-set, so concurrent
+ * callers never block on a monitor and nothing is allocated per id. The timestamp is a logical clock: it never goes
+ * backwards, if the wall clock moves backwards (or all 4096 sequence numbers of a millisecond are used up) we keep
+ * counting on the last timestamp and borrow the next millisecond instead of throwing or spinning.
+ * Ids are unique per (datacenter id, worker id) pair, so every running instance needs its own pair, see IdWorkerLeaseService.
+ * A leased pair can change or be lost while the instance runs, so it is read from the SlotProvider for every id and
+ * no id is generated while the provider has none.
  */
 public class IdWorker {
 
@@ -16,9 +26,9 @@ public class IdWorker {
 
     private final static long datacenterIdBits = 5L;
 
-    private final static long maxWorkerId = -1L ^ (-1L << workerIdBits);
+    public final static long maxWorkerId = -1L ^ (-1L << workerIdBits);
 
-    private final static long maxDatacenterId = -1L ^ (-1L << datacenterIdBits);
+    public final static long maxDatacenterId = -1L ^ (-1L << datacenterIdBits);
 
     private final static long sequenceBits = 12L;
 
@@ -30,61 +40,117 @@ public class IdWorker {
 
     private final static long sequenceMask = -1L ^ (-1L << sequenceBits);
 
-    private static long lastTimestamp = -1L;
+    /**
+     * (timestamp - twepoch) << sequenceBits | sequence of the last id handed out by this instance.
+     */
+    private final AtomicLong lastState = new AtomicLong(-1L);
 
-    private long sequence = 0L;
+    private final SlotProvider slotProvider;
 
-    private final long workerId;
-
-    private final long datacenterId;
+    private final LongSupplier clock;
 
 
     public IdWorker() {
-        this.datacenterId = getDatacenterId(maxDatacenterId);
-        this.workerId = getMaxWorkerId(datacenterId, maxWorkerId);
+        long datacenterId = getDatacenterId(maxDatacenterId);
+        long workerId = getMaxWorkerId(datacenterId, maxWorkerId);
+        this.slotProvider = fixedSlot(workerId, datacenterId);
+        this.clock = System::currentTimeMillis;
     }
 
     public IdWorker(long workerId, long datacenterId) {
+        this(workerId, datacenterId, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock The source of the current time in milliseconds, only replaced in tests.
+     */
+    IdWorker(long workerId, long datacenterId, LongSupplier clock) {
         if (workerId > maxWorkerId || workerId < 0) {
             throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorkerId));
         }
         if (datacenterId > maxDatacenterId || datacenterId < 0) {
             throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", maxDatacenterId));
         }
-        this.workerId = workerId;
-        this.datacenterId = datacenterId;
+        this.slotProvider = fixedSlot(workerId, datacenterId);
+        this.clock = clock;
+    }
+
+    /**
+     * @param slotProvider The (datacenter id, worker id) pair of every id, e.g., the one leased by IdWorkerLeaseService.
+     */
+    public IdWorker(SlotProvider slotProvider) {
+        this(slotProvider, System::currentTimeMillis);
+    }
+
+    IdWorker(SlotProvider slotProvider, LongSupplier clock) {
+        this.slotProvider = slotProvider;
+        this.clock = clock;
+    }
+
+    private static SlotProvider fixedSlot(long workerId, long datacenterId) {
+        int slot = (int) (datacenterId << workerIdBits | workerId);
+        return () -> slot;
+    }
+
+    public long nextId() {
+        int slot = this.slotProvider.currentSlot();
+        return toId(reserve(1), slot);
     }
 
-    public synchronized long nextId() {
-        long timestamp = timeGen();
-        if (timestamp < lastTimestamp) {
-            throw new RuntimeException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", lastTimestamp - timestamp));
+    /**
+     * Reserves count consecutive ids with a single compare-and-set, e.g., for a batch insert.
+     * @param count The number of ids to hand out.
+     * @return The ids in increasing order.
+     */
+    public long[] nextIds(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException(String.format("count can't be less than 1, it was %d", count));
         }
-        if (lastTimestamp == timestamp) {
-            sequence = (sequence + 1) & sequenceMask;
-            if (sequence == 0) {
-                timestamp = tilNextMillis(lastTimestamp);
-            }
-        } else {
-            sequence = 0L;
+        int slot = this.slotProvider.currentSlot();
+        long firstState = reserve(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = toId(firstState + i, slot);
         }
-        lastTimestamp = timestamp;
-        long nextId = ((timestamp - twepoch) << timestampLeftShift)
-                | (datacenterId << datacenterIdShift)
-                | (workerId << workerIdShift) | sequence;
-        return nextId;
+        return ids;
     }
 
-    private long tilNextMillis(final long lastTimestamp) {
-        long timestamp = this.timeGen();
-        while (timestamp <= lastTimestamp) {
-            timestamp = this.timeGen();
-        }
-        return timestamp;
+    /**
+     * Moves lastState forward by count.
+     * @return The first of the count states that now belong to the caller.
+     */
+    private long reserve(int count) {
+        long state;
+        long firstState;
+        do {
+            state = this.lastState.get();
+            long now = this.clock.getAsLong() - twepoch;
+            long lastTimestamp = state >> sequenceBits;
+            if (now > lastTimestamp) {
+                // a new millisecond, start over at sequence 0.
+                firstState = now << sequenceBits;
+            } else {
+                // same millisecond or the clock moved backwards: stay on the last timestamp and take the next sequence.
+                // once the sequence overflows the increment carries into the timestamp, i.e., we borrow the next millisecond.
+                firstState = state + 1;
+            }
+        } while (!this.lastState.compareAndSet(state, firstState + count - 1));
+        return firstState;
     }
 
-    private long timeGen() {
-        return System.currentTimeMillis();
+    private static long toId(long state, int slot) {
+        return ((state >> sequenceBits) << timestampLeftShift)
+                | ((slot >> workerIdBits) << datacenterIdShift)
+                | ((slot & maxWorkerId) << workerIdShift)
+                | (state & sequenceMask);
+    }
+
+    public long getWorkerId() {
+        return this.slotProvider.currentSlot() & maxWorkerId;
+    }
+
+    public long getDatacenterId() {
+        return this.slotProvider.currentSlot() >> workerIdBits;
     }
 
     protected static long getMaxWorkerId(long datacenterId, long maxWorkerId) {
@@ -116,4 +182,16 @@ public class IdWorker {
         return id;
     }
 
+    /**
+     * The source of the (datacenter id, worker id) pair, as a slot: datacenterId * (maxWorkerId + 1) + workerId.
+     */
+    @FunctionalInterface
+    public interface SlotProvider {
+
+        /**
+         * @return The slot to generate the next id with.
+         * @throws IllegalStateException If this instance holds no slot right now, no id must be generated then.
+         */
+        int currentSlot();
+    }
 }
@@ -4,15 +4,27 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotEmpty;
 
 import java.io.Serializable;
 
+/**
+ * Every login looks the user up by username, the unique index turns that into an index lookup and
+ * also keeps two users from sharing a username.
+ */
 @Entity
+@Table(indexes = @Index(name = "uk_hogwarts_user_username", columnList = "username", unique = true))
 public class HogwartsUser implements Serializable {
 
+    /**
+     * pooled sequence, see Wizard.id.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hogwarts_user_seq")
+    @SequenceGenerator(name = "hogwarts_user_seq", sequenceName = "hogwarts_user_seq", allocationSize = 50)
     private Integer id;
 
     @NotEmpty(message = "username is required.")
@@ -17,12 +17,22 @@ public class MyUserPrincipal implements UserDetails {
      */
     private final HogwartsUser hogwartsUser;
 
+    /**
+     * Parsed once, principals are cached (see UserPrincipalCache) and getAuthorities is called on every request.
+     */
+    private final List<GrantedAuthority> authorities;
+
     public MyUserPrincipal(HogwartsUser user) {
         this.hogwartsUser = user;
+        this.authorities = parseAuthorities(user.getRoles());
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        return this.authorities;
+    }
+
+    private static List<GrantedAuthority> parseAuthorities(String roles) {
         /*
          * The HogwartsUser has a list of roles separated by a string.
          * We would need to split each role by using a delimiter.
@@ -31,8 +41,8 @@ public class MyUserPrincipal implements UserDetails {
          * We need to add a "ROLE_" prefix before each role name.
          */
 //        StringUtils.tokenizeToStringArray(this.hogwartsUser.getRoles(), " ").
-        return Arrays.stream(StringUtils.tokenizeToStringArray(this.hogwartsUser.getRoles(), " "))
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+        return Arrays.stream(StringUtils.tokenizeToStringArray(roles, " "))
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
                 .toList();
     }
 
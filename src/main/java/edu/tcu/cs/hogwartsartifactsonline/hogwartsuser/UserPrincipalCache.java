@@ -0,0 +1,41 @@
+package edu.tcu.cs.hogwartsartifactsonline.hogwartsuser;
+
+import edu.tcu.cs.hogwartsartifactsonline.system.jdbc.ReadYourWrites;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Every HTTP Basic request loads its user by username, this keeps the principals of recently seen usernames so repeated
+ * requests don't query the database or parse the roles again.
+ *
+ * Unknown usernames are cached too (an empty Optional is stored as a null entry), so a flood of logins with made-up
+ * usernames is answered from memory. The cache is bounded and Caffeine only admits a new entry over an existing one
+ * if it is used more often, so those one-off usernames don't push the real users out. UserService evicts the entries
+ * of users it creates, updates or deletes, on this instance only: other instances keep their entry (password hash and
+ * enabled flag included) until it expires, which is why this cache lives for seconds (see CacheConfiguration and
+ * hogwarts.cache.users-spec in application.yml).
+ *
+ * This is a bean of its own, calls from UserService to a cached method of UserService itself would skip the cache proxy.
+ */
+@Component
+public class UserPrincipalCache {
+
+    public static final String USER_CACHE = "users";
+
+    private final UserRepository userRepository;
+
+    public UserPrincipalCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Read from the primary, not a replica, so a user created or changed a moment ago is not cached as unknown or
+     * as it was before.
+     */
+    @Cacheable(cacheNames = USER_CACHE, key = "#username")
+    public Optional<MyUserPrincipal> findByUsername(String username) {
+        return ReadYourWrites.fromPrimary(() -> this.userRepository.findByUsername(username).map(MyUserPrincipal::new));
+    }
+}
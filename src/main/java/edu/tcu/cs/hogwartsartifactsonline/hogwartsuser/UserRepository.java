@@ -1,6 +1,9 @@
 package edu.tcu.cs.hogwartsartifactsonline.hogwartsuser;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -13,4 +16,12 @@ public interface UserRepository extends JpaRepository<HogwartsUser, Integer> {
      */
     Optional<HogwartsUser> findByUsername(String username);
 
+    /**
+     * Replaces a password hash without loading the user, e.g., when a login rehashes it with the current encoder.
+     * @return The number of users updated.
+     */
+    @Modifying
+    @Query("update HogwartsUser u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Integer id, @Param("password") String password);
+
 }
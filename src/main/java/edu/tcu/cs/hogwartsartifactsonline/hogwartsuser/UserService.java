@@ -1,38 +1,50 @@
 package edu.tcu.cs.hogwartsartifactsonline.hogwartsuser;
 
+import edu.tcu.cs.hogwartsartifactsonline.system.MetricsConfiguration;
 import edu.tcu.cs.hogwartsartifactsonline.system.exception.ObjectNotFoundException;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 @Service
 @Transactional
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
     private PasswordEncoder passwordEncoder;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private final UserPrincipalCache userPrincipalCache;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
+    @Transactional(readOnly = true)
     public List<HogwartsUser> findAll() {
         return this.userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public HogwartsUser findById(Integer userId) {
         return this.userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("user", userId));
     }
 
+    // the username may be cached as unknown.
+    @CacheEvict(cacheNames = UserPrincipalCache.USER_CACHE, key = "#newHogwartsUser.username")
     public HogwartsUser save(HogwartsUser newHogwartsUser) {
         // We NEED to encode plain text password before saving to the DB! TODO
         newHogwartsUser.setPassword(this.passwordEncoder.encode(newHogwartsUser.getPassword()));
@@ -44,8 +56,11 @@ public class UserService implements UserDetailsService {
      *
      * @param userId
      * @param update
+     * The username may change, so both the old and the new one would have to be evicted. Users change rarely,
+     * the whole user cache is cleared instead.
      * @return
      */
+    @CacheEvict(cacheNames = UserPrincipalCache.USER_CACHE, allEntries = true)
     public HogwartsUser update(Integer userId, HogwartsUser update) {
         HogwartsUser oldHogwartsUser = this.userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("user", userId));
@@ -56,16 +71,34 @@ public class UserService implements UserDetailsService {
         return this.userRepository.save(oldHogwartsUser);
     }
 
+    @CacheEvict(cacheNames = UserPrincipalCache.USER_CACHE, allEntries = true)
     public void delete(Integer userId) {
         this.userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("user", userId));
         this.userRepository.deleteById(userId);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return this.userRepository.findByUsername(username) // Find this user from the database.
-                .map(MyUserPrincipal::new) // If found, wrap the returned user instance in a MyUserPrincipal instance
+        return this.userPrincipalCache.findByUsername(username) // Find this user from the cache or else the database, wrapped in a MyUserPrincipal instance.
                 .orElseThrow(() -> new UsernameNotFoundException(username)); // Otherwise, throw an exception.
     }
+
+    /**
+     * Called by Spring Security after a successful login when the stored hash was made by another encoder or with
+     * other parameters than the configured ones (PasswordEncoder.upgradeEncoding), so changing the encoder or its cost
+     * takes effect as users log in.
+     * @param user The user that just logged in.
+     * @param newPassword The password hashed with the configured encoder.
+     * @return The user with the new hash.
+     */
+    @Override
+    @CacheEvict(cacheNames = UserPrincipalCache.USER_CACHE, key = "#user.username")
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        HogwartsUser hogwartsUser = ((MyUserPrincipal) user).getHogwartsUser();
+        this.userRepository.updatePassword(hogwartsUser.getId(), newPassword);
+        hogwartsUser.setPassword(newPassword);
+        return new MyUserPrincipal(hogwartsUser);
+    }
 }
@@ -4,12 +4,15 @@ import edu.tcu.cs.hogwartsartifactsonline.hogwartsuser.HogwartsUser;
 import edu.tcu.cs.hogwartsartifactsonline.hogwartsuser.MyUserPrincipal;
 import edu.tcu.cs.hogwartsartifactsonline.hogwartsuser.converter.UserToUserDtoConverter;
 import edu.tcu.cs.hogwartsartifactsonline.hogwartsuser.dto.UserDto;
+import edu.tcu.cs.hogwartsartifactsonline.system.MetricsConfiguration;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
 
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 @Service
 public class AuthService {
 
@@ -0,0 +1,130 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every hash (encode and matches) of the delegate on a small dedicated pool, so a burst of logins can use at most
+ * that many cores and the other requests keep being served. Hashes wait in a bounded queue, when it is full or a hash
+ * waited longer than the timeout the caller gets a PasswordHashingBusyException (503) instead of queueing up forever.
+ *
+ * Metrics:
+ * hogwarts.password.hashing (timer, tag operation=encode|matches) the time of the hash itself,
+ * hogwarts.password.hashing.queue (gauge) hashes waiting for a thread,
+ * hogwarts.password.hashing.active (gauge) hashes running,
+ * hogwarts.password.hashing.rejected (counter) hashes turned away.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Duration timeout;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = Timer.builder("hogwarts.password.hashing")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("hogwarts.password.hashing")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("hogwarts.password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("hogwarts.password.hashing.queue", this.executor, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("hogwarts.password.hashing.active", this.executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(this.encodeTimer, () -> this.delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(this.matchesTimer, () -> this.delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Only looks at the stored hash's prefix and parameters, cheap enough for the caller's thread.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Called by Spring when the context closes (inferred destroy method of the bean).
+     */
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> hash) {
+        Future<T> future;
+        try {
+            future = this.executor.submit(() -> timer.recordCallable(hash));
+        } catch (RejectedExecutionException ex) {
+            this.rejected.increment();
+            throw new PasswordHashingBusyException("Too many logins at the moment, please try again later.");
+        }
+        try {
+            return future.get(this.timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(false); // still queued: it won't run. Already running: let it finish, nobody waits for it.
+            this.rejected.increment();
+            throw new PasswordHashingBusyException("Too many logins at the moment, please try again later.");
+        } catch (InterruptedException ex) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for the password hash.");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
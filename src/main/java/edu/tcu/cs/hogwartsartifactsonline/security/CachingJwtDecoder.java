@@ -0,0 +1,116 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the tokens the delegate decoder has already validated, so a client sending the same bearer token on every
+ * request only pays for the signature check once. Entries are keyed by a SHA-256 hash of the token, a small fixed-size
+ * key however long the token is. The cached Jwt still holds the raw token (getTokenValue()), so every unexpired token in
+ * the cache can be read from a heap dump, like the tokens of the requests in flight. Entries expire at the token's exp claim,
+ * after which the token is rejected by the delegate as usual. Tokens that fail validation are never cached, nor are tokens
+ * without an exp claim.
+ *
+ * The delegate checks the signature against the keys of the moment, so the cache has to be emptied when a key is
+ * removed (invalidateAll, see JwtKeys.addKeyRemovalListener), otherwise the tokens it signed stay accepted until they
+ * expire. A token being validated while the cache is emptied is not cached, it may have been checked with the old key.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+
+    private final Cache<String, Jwt> validatedTokens;
+
+    private final Clock clock;
+
+    /**
+     * Bumped by invalidateAll.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public CachingJwtDecoder(JwtDecoder delegate, long maximumSize) {
+        this(delegate, maximumSize, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, long maximumSize, Clock clock) {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.validatedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                        return timeToLive(jwt);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return timeToLive(jwt);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt cached = this.validatedTokens.getIfPresent(key);
+        // comparing the token value is cheap and rules out a hash collision handing out someone else's claims.
+        if (cached != null && cached.getTokenValue().equals(token) && cached.getExpiresAt().isAfter(this.clock.instant())) {
+            return cached;
+        }
+        long generationBefore = this.generation.get();
+        Jwt jwt = this.delegate.decode(token); // throws if the token is malformed, forged or expired.
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isAfter(this.clock.instant())
+                && this.generation.get() == generationBefore) {
+            // within the delegate's clock skew a token can still be accepted after its exp, it is just not cached.
+            this.validatedTokens.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Forgets every validated token, the next request of each is validated by the delegate again.
+     */
+    public void invalidateAll() {
+        this.generation.incrementAndGet();
+        this.validatedTokens.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return this.validatedTokens.stats();
+    }
+
+    private long timeToLive(Jwt jwt) {
+        return Math.max(0, Duration.between(this.clock.instant(), jwt.getExpiresAt()).toNanos());
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available.", ex); // every JVM is required to have it.
+        }
+    }
+}
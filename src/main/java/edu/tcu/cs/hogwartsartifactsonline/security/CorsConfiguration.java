@@ -1,13 +1,23 @@
 package edu.tcu.cs.hogwartsartifactsonline.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+/**
+ * By default any origin may call the API, without credentials. A cross-origin browser frontend then never sends the
+ * read-your-writes cookie back (see ReadYourWritesFilter) and may read its own writes from a lagging replica.
+ * Listing the frontends in hogwarts.cors.credentialed-origins lets them send cookies (the frontend also has to send
+ * its requests with credentials), and limits cross-origin calls to those origins.
+ */
 @Configuration
 public class CorsConfiguration {
 
+    @Value("${hogwarts.cors.credentialed-origins:}")
+    private String[] credentialedOrigins;
+
     @Bean
     public WebMvcConfigurer corsConfigurer() {
         return new WebMvcConfigurer() {
@@ -15,7 +25,14 @@ public class CorsConfiguration {
             public void addCorsMappings(CorsRegistry registry) {
                 WebMvcConfigurer.super.addCorsMappings(registry);
                 // enable CORS for the entire application, for all incoming requests.
-                registry.addMapping("/**"); // Enable CORS for the whole application.
+                if (credentialedOrigins.length == 0) {
+                    registry.addMapping("/**"); // Enable CORS for the whole application.
+                    return;
+                }
+                registry.addMapping("/**")
+                        .allowedOrigins(credentialedOrigins)
+                        .allowedMethods("*")
+                        .allowCredentials(true);
             }
         };
     }
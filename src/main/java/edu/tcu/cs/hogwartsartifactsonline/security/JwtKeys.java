@@ -0,0 +1,288 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.JWKGenerator;
+import com.nimbusds.jose.jwk.gen.OctetSequenceKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The keys tokens are signed and verified with, kept in a JWK set file so they survive restarts
+ * (the key pair used to be generated at startup, so every restart logged every user out).
+ *
+ * The newest key of the configured algorithm signs, every key in the file verifies. A new key is generated and put in front
+ * when there is none for the algorithm yet or the signing key is older than the maximum key age. The previous keys stay in
+ * the file until every token they signed has expired, so switching algorithms or rotating keys doesn't turn outstanding
+ * tokens into 401s. Instances that verify each other's tokens must share the file (hogwarts.security.jwt.jwk-set-location,
+ * a shared volume in a container).
+ *
+ * Every instance re-reads the file periodically (hogwarts.security.jwt.reload-interval-ms) and rotates the key when it is
+ * due, under an exclusive lock on a sibling .lock file, so instances starting or rotating together agree on one new key
+ * instead of the last writer winning. A token whose kid is not loaded yet (another instance has just rotated) makes the
+ * decoder re-read the file right away, at most once a second, instead of rejecting it until the next reload.
+ * When a reload drops or replaces a key (retired, or taken out of the file by hand) the key removal listeners run,
+ * so the tokens validated with it are not served from a cache any more (see CachingJwtDecoder).
+ *
+ * Supported algorithms are ES256 (default, much cheaper to sign than RS256), RS256 and HS256. HS256 is the cheapest but
+ * the verifier needs the secret, so only use it when this application is the only one verifying its tokens.
+ */
+@Component
+public class JwtKeys {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwtKeys.class);
+
+    public static final Set<JWSAlgorithm> SUPPORTED_ALGORITHMS = Set.of(JWSAlgorithm.ES256, JWSAlgorithm.RS256, JWSAlgorithm.HS256);
+
+    /**
+     * How often an unknown kid may trigger a reload, so tokens with made-up kids can't keep the file busy.
+     */
+    private static final Duration ON_DEMAND_RELOAD_INTERVAL = Duration.ofSeconds(1);
+
+    /**
+     * A FileLock is held by the whole JVM, instances in the same JVM (e.g., test contexts) take turns on this first.
+     */
+    private static final Object FILE_LOCK = new Object();
+
+    private final JWSAlgorithm algorithm;
+
+    private final Path jwkSetLocation;
+
+    private final Duration keyMaxAge;
+
+    private final Duration tokenLifetime;
+
+    private final Clock clock;
+
+    private volatile Keys keys;
+
+    private volatile Instant lastReload = Instant.MIN;
+
+    private final List<Runnable> keyRemovalListeners = new CopyOnWriteArrayList<>();
+
+    public JwtKeys(@Value("${hogwarts.security.jwt.algorithm}") String algorithm,
+                   @Value("${hogwarts.security.jwt.jwk-set-location}") Path jwkSetLocation,
+                   @Value("${hogwarts.security.jwt.key-max-age}") Duration keyMaxAge) throws IOException, ParseException, JOSEException {
+        this(JWSAlgorithm.parse(algorithm), jwkSetLocation, keyMaxAge, JwtProvider.TOKEN_LIFETIME, Clock.systemUTC());
+    }
+
+    JwtKeys(JWSAlgorithm algorithm, Path jwkSetLocation, Duration keyMaxAge, Duration tokenLifetime, Clock clock)
+            throws IOException, ParseException, JOSEException {
+        this.algorithm = algorithm;
+        this.jwkSetLocation = jwkSetLocation;
+        this.keyMaxAge = keyMaxAge;
+        this.tokenLifetime = tokenLifetime;
+        this.clock = clock;
+        reload();
+    }
+
+    /**
+     * Picks up the keys other instances added and rotates the signing key once it is due.
+     * A failed reload keeps the keys loaded so far.
+     */
+    @Scheduled(fixedDelayString = "${hogwarts.security.jwt.reload-interval-ms}", initialDelayString = "${hogwarts.security.jwt.reload-interval-ms}")
+    public void scheduledReload() {
+        try {
+            reload();
+        } catch (IOException | ParseException | JOSEException ex) {
+            LOGGER.error("Could not reload the JWK set {}, keeping the keys loaded before.", this.jwkSetLocation, ex);
+        }
+    }
+
+    synchronized void reload() throws IOException, ParseException, JOSEException {
+        Instant now = this.clock.instant();
+        this.lastReload = now;
+        Path directory = this.jwkSetLocation.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path lockFile = directory.resolve(this.jwkSetLocation.getFileName() + ".lock");
+        Keys previous = this.keys;
+        synchronized (FILE_LOCK) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                this.keys = loadOrRotate(now);
+            }
+        }
+        // adding a key (a rotation) leaves every validated token valid, only a key going away matters.
+        if (previous != null && !this.keys.jwkSet().getKeys().containsAll(previous.jwkSet().getKeys())) {
+            LOGGER.info("JWT verification keys were removed, running {} key removal listeners.", this.keyRemovalListeners.size());
+            this.keyRemovalListeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * @param listener Run after a reload removed or replaced a verification key, on the thread that reloaded.
+     */
+    public void addKeyRemovalListener(Runnable listener) {
+        this.keyRemovalListeners.add(listener);
+    }
+
+    /**
+     * Must hold the file lock.
+     */
+    private Keys loadOrRotate(Instant now) throws IOException, ParseException, JOSEException {
+        List<JWK> keys = Files.exists(this.jwkSetLocation)
+                ? new ArrayList<>(JWKSet.load(this.jwkSetLocation.toFile()).getKeys())
+                : new ArrayList<>();
+        boolean changed = false;
+
+        JWK signingKey = keys.stream()
+                .filter(key -> this.algorithm.equals(key.getAlgorithm()))
+                .findFirst()
+                .orElse(null);
+        if (signingKey == null || issuedAt(signingKey, now).plus(this.keyMaxAge).isBefore(now)) {
+            signingKey = generate(this.algorithm, now);
+            keys.add(0, signingKey);
+            changed = true;
+            LOGGER.info("Generated JWT signing key {} ({}).", signingKey.getKeyID(), this.algorithm);
+        }
+
+        // every token signed by another key was issued before the signing key took over,
+        // so once the signing key is older than a token's lifetime those keys can go.
+        JWK currentKey = signingKey;
+        if (keys.size() > 1 && issuedAt(currentKey, now).plus(this.tokenLifetime).isBefore(now)) {
+            keys.removeIf(key -> key != currentKey);
+            changed = true;
+        }
+
+        JWKSet jwkSet = new JWKSet(keys);
+        if (changed) {
+            save(this.jwkSetLocation, jwkSet);
+        }
+        return new Keys(signingKey, jwkSet);
+    }
+
+    /**
+     * @return The key tokens are signed with now.
+     */
+    public JWK signingKey() {
+        return this.keys.signingKey();
+    }
+
+    /**
+     * @return Every key a token may have been signed with, including the signing key. HMAC keys are secrets,
+     * which is why the private parts are kept (the verifier only uses the public part of the asymmetric keys).
+     */
+    public JWKSet verificationKeys() {
+        return this.keys.jwkSet();
+    }
+
+    /**
+     * The JWK source of the JwtEncoder. The header names the key (see jwsHeader), so a token whose header was built just
+     * before a rotation is still signed with the key it names.
+     */
+    public JWKSource<SecurityContext> signingKeySource() {
+        return (selector, context) -> selector.select(this.keys.jwkSet());
+    }
+
+    /**
+     * The JWK source of the JwtDecoder, it reloads the file when no key matches the token's kid.
+     */
+    public JWKSource<SecurityContext> verificationKeySource() {
+        return (selector, context) -> {
+            List<JWK> matches = selector.select(this.keys.jwkSet());
+            if (matches.isEmpty() && !this.clock.instant().isBefore(this.lastReload.plus(ON_DEMAND_RELOAD_INTERVAL))) {
+                try {
+                    reload();
+                } catch (IOException | ParseException | JOSEException ex) {
+                    throw new KeySourceException("Could not reload the JWK set.", ex);
+                }
+                matches = selector.select(this.keys.jwkSet());
+            }
+            return matches;
+        };
+    }
+
+    /**
+     * The kid tells the decoder which key to verify with, no need to try each key.
+     * @return The header of the tokens signed with the signing key.
+     */
+    public JwsHeader jwsHeader() {
+        String name = this.algorithm.getName();
+        JwsHeader.Builder builder = JWSAlgorithm.Family.HMAC_SHA.contains(this.algorithm)
+                ? JwsHeader.with(MacAlgorithm.from(name))
+                : JwsHeader.with(SignatureAlgorithm.from(name));
+        return builder.keyId(signingKey().getKeyID()).build();
+    }
+
+    private static Instant issuedAt(JWK key, Instant now) {
+        // keys added to the file by hand may not have an iat, treat them as brand new rather than retire them right away.
+        return key.getIssueTime() == null ? now : key.getIssueTime().toInstant();
+    }
+
+    private static JWK generate(JWSAlgorithm algorithm, Instant now) throws JOSEException {
+        JWKGenerator<? extends JWK> generator;
+        if (JWSAlgorithm.ES256.equals(algorithm)) {
+            generator = new ECKeyGenerator(Curve.P_256);
+        } else if (JWSAlgorithm.RS256.equals(algorithm)) {
+            generator = new RSAKeyGenerator(2048);
+        } else if (JWSAlgorithm.HS256.equals(algorithm)) {
+            generator = new OctetSequenceKeyGenerator(256);
+        } else {
+            throw new IllegalArgumentException("Unsupported JWT signing algorithm " + algorithm + ", use ES256, RS256 or HS256.");
+        }
+        return generator
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(algorithm)
+                .keyID(UUID.randomUUID().toString())
+                .issueTime(Date.from(now))
+                .generate();
+    }
+
+    private record Keys(JWK signingKey, JWKSet jwkSet) {
+    }
+
+    /**
+     * Written to a temporary file first and moved over the old one, so a crash never leaves a half-written key file.
+     */
+    private static void save(Path jwkSetLocation, JWKSet jwkSet) throws IOException {
+        Path directory = jwkSetLocation.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "jwks", ".tmp");
+        try {
+            try {
+                Files.setPosixFilePermissions(temporary, PosixFilePermissions.fromString("rw-------")); // it holds private keys.
+            } catch (UnsupportedOperationException ex) {
+                // not a POSIX file system, the file keeps the default permissions.
+            }
+            Files.writeString(temporary, jwkSet.toString(false), StandardCharsets.UTF_8);
+            Files.move(temporary, jwkSetLocation, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
@@ -7,22 +7,29 @@ import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtProvider {
 
+    /**
+     * Tokens are only good for 2 hours, JwtKeys keeps a retired key at least that long.
+     */
+    public static final Duration TOKEN_LIFETIME = Duration.ofHours(2);
+
     private final JwtEncoder jwtEncoder;
 
-    public JwtProvider(JwtEncoder jwtEncoder) {
+    private final JwtKeys jwtKeys;
+
+    public JwtProvider(JwtEncoder jwtEncoder, JwtKeys jwtKeys) {
         this.jwtEncoder = jwtEncoder;
+        this.jwtKeys = jwtKeys;
     }
 
     public String createToken(Authentication authentication) {
         Instant now = Instant.now();
-        long expiresIn = 2; // 2 hours. So token is only good for 2 hours.
 
         // Prepare a claim called authorities.
         String authorities = authentication.getAuthorities().stream()
@@ -34,11 +41,12 @@ public class JwtProvider {
         JwtClaimsSet claims = JwtClaimsSet.builder()
                 .issuer("self") // not using a dedicated authorization server.
                 .issuedAt(now)
-                .expiresAt(now.plus(expiresIn, ChronoUnit.HOURS))
+                .expiresAt(now.plus(TOKEN_LIFETIME))
                 .subject(authentication.getName())
                 .claim("authorities", authorities)
                 .build();
 
-        return this.jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        // the header names the algorithm and key id of the signing key, see JwtKeys.
+        return this.jwtEncoder.encode(JwtEncoderParameters.from(this.jwtKeys.jwsHeader(), claims)).getTokenValue();
     }
 }
@@ -1,11 +1,9 @@
 package edu.tcu.cs.hogwartsartifactsonline.security;
 
-import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
-import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,8 +11,11 @@ import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
@@ -23,12 +24,11 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.util.ClassUtils;
 
-import java.security.KeyPair;
-import java.security.KeyPairGenerator;
-import java.security.NoSuchAlgorithmException;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Custom security rules and configuration object.
@@ -36,9 +36,7 @@ import java.security.interfaces.RSAPublicKey;
 @Configuration
 public class SecurityConfiguration {
 
-    private final RSAPublicKey publicKey;
-
-    private final RSAPrivateKey privateKey;
+    private final JwtKeys jwtKeys;
 
     @Value("${api.endpoint.base-url}")
     private String baseUrl;
@@ -49,18 +47,12 @@ public class SecurityConfiguration {
 
     private final CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler;
 
-    public SecurityConfiguration(CustomBasicAuthenticationEntryPoint customBasicAuthenticationEntryPoint, CustomBearerTokenAuthenticationEntryPoint customBearerTokenAuthenticationEntryPoint, CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler) throws NoSuchAlgorithmException {
+    public SecurityConfiguration(CustomBasicAuthenticationEntryPoint customBasicAuthenticationEntryPoint, CustomBearerTokenAuthenticationEntryPoint customBearerTokenAuthenticationEntryPoint, CustomBearerTokenAccessDeniedHandler customBearerTokenAccessDeniedHandler, JwtKeys jwtKeys) {
         this.customBasicAuthenticationEntryPoint = customBasicAuthenticationEntryPoint;
         this.customBearerTokenAuthenticationEntryPoint = customBearerTokenAuthenticationEntryPoint;
         this.customBearerTokenAccessDeniedHandler = customBearerTokenAccessDeniedHandler;
-        // Generate a public/private key pair.
-        // We use the factory pattern here.
-        // We are throwing an exception to account for the case where we use an unspported algorithm.
-        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-        keyPairGenerator.initialize(2048); // The generated key will have a size of 2048 bits.
-        KeyPair keyPair = keyPairGenerator.generateKeyPair();
-        this.publicKey = (RSAPublicKey) keyPair.getPublic();
-        this.privateKey = (RSAPrivateKey) keyPair.getPrivate();
+        // The keys are loaded from (or created in) the JWK set file, see JwtKeys.
+        this.jwtKeys = jwtKeys;
     }
 
     /**
@@ -75,12 +67,16 @@ public class SecurityConfiguration {
         // return a SecurityFilterChain by using the Builder pattern.
         return http
                 .authorizeHttpRequests((authorizeHttpRequests) -> authorizeHttpRequests
+                        .requestMatchers(HttpMethod.GET, this.baseUrl + "/artifacts/export", this.baseUrl + "/artifacts/async/all").authenticated() // Long-running exports, not for anonymous clients.
                         .requestMatchers(HttpMethod.GET, this.baseUrl + "/artifacts/**").permitAll()
                         .requestMatchers(HttpMethod.GET, this.baseUrl + "/users/**").hasAuthority("ROLE_admin") // Protecting this endpoint.
                         .requestMatchers(HttpMethod.POST, this.baseUrl + "/users").hasAuthority("ROLE_admin") // Protecting this endpoint.
                         .requestMatchers(HttpMethod.PUT, this.baseUrl + "/users/**").hasAuthority("ROLE_admin") // Protecting this endpoint.
                         .requestMatchers(HttpMethod.DELETE, this.baseUrl + "/users/**").hasAuthority("ROLE_admin") // Protecting this endpoint.
+                        .requestMatchers(HttpMethod.GET, this.baseUrl + "/caches/**").hasAuthority("ROLE_admin") // Protecting this endpoint.
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/h2-console/**")).permitAll()
+                        .requestMatchers(AntPathRequestMatcher.antMatcher(HttpMethod.GET, "/actuator/health/**")).permitAll()
+                        .requestMatchers(AntPathRequestMatcher.antMatcher("/actuator/**")).hasAuthority("ROLE_admin") // metrics and the Prometheus scrape endpoint.
                         // Disallow (user must be authenticated) everything else.
                         .anyRequest().authenticated() // Always a good idea to put this last to ensure user must be authenticated.
                 )
@@ -98,25 +94,60 @@ public class SecurityConfiguration {
     }
 
     // expose as a bean so Spring can inject the bean into any object that requires it.
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    // Hashes are stored with an {id} prefix naming the encoder. A login with a hash of another encoder (or an older
+    // bcrypt strength) is rehashed with the configured one, see UserService.updatePassword.
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(@Value("${hogwarts.security.password.encoder}") String encoderId,
+                                                  @Value("${hogwarts.security.password.bcrypt-strength}") int bcryptStrength,
+                                                  @Value("${hogwarts.security.password.hashing-threads}") int hashingThreads,
+                                                  @Value("${hogwarts.security.password.hashing-queue-capacity}") int hashingQueueCapacity,
+                                                  @Value("${hogwarts.security.password.hashing-timeout}") Duration hashingTimeout,
+                                                  MeterRegistry meterRegistry) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(bcryptStrength));
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.params.Argon2Parameters", null)) {
+            encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8()); // needs BouncyCastle on the classpath.
+        }
+        if (!encoders.containsKey(encoderId)) {
+            throw new IllegalArgumentException("Unknown password encoder " + encoderId + ", use one of " + encoders.keySet() + ".");
+        }
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(encoderId, encoders);
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt")); // hashes stored before the {id} prefix.
+
+        // 0 threads: half of the cores, the other half stays free for everything that isn't a login.
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, threads, hashingQueueCapacity, hashingTimeout, meterRegistry);
     }
 
     // Encoder
     @Bean
     public JwtEncoder jwtEncoder() {
         // JWK: JSON Web Key
-        JWK jwk = new RSAKey.Builder(this.publicKey).privateKey(this.privateKey).build();
-        JWKSource<SecurityContext> jwkSet = new ImmutableJWKSet<>(new JWKSet(jwk));
-        return new NimbusJwtEncoder(jwkSet);
+        // the kid in the header picks the signing key, the encoder refuses to pick one when several keys match the header.
+        return new NimbusJwtEncoder(this.jwtKeys.signingKeySource());
     }
 
     // Decoder
+    // The same client sends the same token with every request, so validated tokens are cached until they expire
+    // instead of verifying the signature again each time.
     @Bean
-    public JwtDecoder jwtDecoder() {
-        // note: builder pattern here.
-        return NimbusJwtDecoder.withPublicKey(this.publicKey).build();
+    public JwtDecoder jwtDecoder(@Value("${hogwarts.security.jwt-cache.maximum-size}") long jwtCacheMaximumSize) {
+        // Every key in the JWK set verifies, the kid header of the token picks the key (an unknown kid reloads the set).
+        // The alg header must match the algorithm of that key as well.
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JwtKeys.SUPPORTED_ALGORITHMS, this.jwtKeys.verificationKeySource()));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+            // the claims (exp, nbf) are validated by NimbusJwtDecoder instead.
+        });
+        JwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+        if (jwtCacheMaximumSize <= 0) {
+            return jwtDecoder;
+        }
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(jwtDecoder, jwtCacheMaximumSize);
+        // a retired or removed key must not keep its tokens valid through the cache.
+        this.jwtKeys.addKeyRemovalListener(cachingJwtDecoder::invalidateAll);
+        return cachingJwtDecoder;
     }
 
     @Bean
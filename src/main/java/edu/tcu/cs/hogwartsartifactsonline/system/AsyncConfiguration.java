@@ -0,0 +1,45 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import edu.tcu.cs.hogwartsartifactsonline.system.jdbc.ReadYourWrites;
+import edu.tcu.cs.hogwartsartifactsonline.system.jdbc.SqlStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * The pool the asynchronous endpoints (see ArtifactAsyncController) run their work on, it is also the pool Spring MVC
+ * writes streaming responses with. It is bounded in threads and queued tasks, once both are full new requests are
+ * turned away with a 503 instead of piling up.
+ */
+@Configuration
+public class AsyncConfiguration implements WebMvcConfigurer {
+
+    public static final String ARTIFACT_READ_EXECUTOR = "artifactReadExecutor";
+
+    @Value("${hogwarts.artifact.read-executor.pool-size}")
+    private int poolSize;
+
+    @Value("${hogwarts.artifact.read-executor.queue-capacity}")
+    private int queueCapacity;
+
+    @Bean(ARTIFACT_READ_EXECUTOR)
+    public ThreadPoolTaskExecutor artifactReadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(this.poolSize);
+        executor.setMaxPoolSize(this.poolSize);
+        executor.setQueueCapacity(this.queueCapacity);
+        executor.setThreadNamePrefix("artifact-read-");
+        // the statements a task runs count towards the request that submitted it (see SqlAccountingFilter),
+        // and it reads from the primary if the request has to (see ReadYourWritesFilter).
+        executor.setTaskDecorator(task -> SqlStatistics.propagate(ReadYourWrites.propagate(task)));
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(artifactReadExecutor());
+    }
+}
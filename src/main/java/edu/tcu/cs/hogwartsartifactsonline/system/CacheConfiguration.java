@@ -0,0 +1,38 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import edu.tcu.cs.hogwartsartifactsonline.hogwartsuser.UserPrincipalCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The Caffeine caches of spring.cache, built here instead of by Spring Boot for two reasons.
+ *
+ * The caches are transaction-aware: a @CacheEvict (or a put) inside a transaction happens after the commit, not when
+ * the method returns. Evicting before the commit lets a concurrent read load the old row again and cache it until it
+ * expires. Outside a transaction they act right away as before.
+ *
+ * The users cache doesn't use spring.cache.caffeine.spec. It holds password hashes and enabled flags, and UserService
+ * evicts entries on the instance that made the change only, so on every other instance a changed password or a disabled
+ * user keeps working until the entry expires. That's why it expires after seconds (hogwarts.cache.users-spec)
+ * instead of minutes.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfiguration {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties, @Value("${hogwarts.cache.users-spec}") String usersSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        cacheManager.registerCustomCache(UserPrincipalCache.USER_CACHE, Caffeine.from(usersSpec).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
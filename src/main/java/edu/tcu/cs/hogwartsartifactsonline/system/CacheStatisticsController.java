@@ -0,0 +1,49 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the hit/miss/eviction numbers of the in-process caches (only admins can see them).
+ */
+@RestController
+@RequestMapping("${api.endpoint.base-url}/caches")
+public class CacheStatisticsController {
+
+    private final CacheManager cacheManager;
+
+    public CacheStatisticsController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping
+    public Result findCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        this.cacheManager.getCacheNames().forEach(cacheName -> {
+            Cache cache = this.cacheManager.getCache(cacheName);
+            if (cache instanceof TransactionAwareCacheDecorator transactionAwareCache) {
+                cache = transactionAwareCache.getTargetCache(); // see CacheConfiguration.
+            }
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                Map<String, Object> cacheStatistics = new LinkedHashMap<>();
+                cacheStatistics.put("size", caffeineCache.getNativeCache().estimatedSize());
+                cacheStatistics.put("hitCount", stats.hitCount());
+                cacheStatistics.put("missCount", stats.missCount());
+                cacheStatistics.put("hitRate", stats.hitRate());
+                cacheStatistics.put("evictionCount", stats.evictionCount());
+                statistics.put(cacheName, cacheStatistics);
+            }
+        });
+        return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Find Cache Statistics Success", statistics);
+    }
+}
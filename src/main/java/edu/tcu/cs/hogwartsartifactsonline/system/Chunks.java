@@ -0,0 +1,29 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the lists of the bulk operations, e.g., to keep the IN lists of a statement or the work of a transaction bounded.
+ */
+public final class Chunks {
+
+    private Chunks() {
+    }
+
+    /**
+     * @param items The list to split.
+     * @param chunkSize The most items per chunk, at least 1.
+     * @return Consecutive views of the list (not copies), every one but the last holding chunkSize items.
+     */
+    public static <T> List<List<T>> of(List<T> items, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be at least 1, it is " + chunkSize + ".");
+        }
+        List<List<T>> chunks = new ArrayList<>(items.size() / chunkSize + 1);
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            chunks.add(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+        return chunks;
+    }
+}
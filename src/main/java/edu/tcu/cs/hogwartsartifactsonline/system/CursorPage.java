@@ -0,0 +1,36 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (cursor) paginated listing.
+ * The nextCursor is an opaque token the client sends back to fetch the following page, it is null on the last page.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(this.content.stream().<R>map(mapper).toList(), this.nextCursor);
+    }
+
+    /**
+     * Wrap the key of the last row of a page so clients don't depend on what the key actually is.
+     * @param key The sort key of the last row returned.
+     * @return An url-safe token.
+     */
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
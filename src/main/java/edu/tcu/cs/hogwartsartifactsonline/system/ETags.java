@@ -0,0 +1,61 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Builds strong ETag values out of the version columns read by the repositories.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * @param parts The values the representation depends on, e.g., the entity version.
+     * @return The parts joined by dashes, Spring adds the surrounding quotes.
+     */
+    public static String of(Object... parts) {
+        return Arrays.stream(parts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("-"));
+    }
+
+    /**
+     * For representations built from many rows, e.g., a page: of(parts) would grow with the number of rows.
+     * @param parts The values the representation depends on.
+     * @return A SHA-256 digest of of(parts), url-safe base64 of its first 16 bytes.
+     */
+    public static String digest(Object... parts) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(of(parts).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is available on every JVM.", ex);
+        }
+    }
+
+    /**
+     * For the endpoints that can't use WebRequest.checkNotModified, e.g., when the ETag is computed on another thread.
+     * @param ifNoneMatch The If-None-Match header of the request, may be null.
+     * @param eTag The current ETag value without quotes, as returned by of.
+     * @return Whether the client already has the current representation.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String quoted = "\"" + eTag + "\"";
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(quoted) || trimmed.equals("W/" + quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Most of the metrics are registered by Spring Boot Actuator on its own:
+ * http.server.requests (one timer per route, method, status and outcome), spring.data.repository.invocations
+ * (one timer per repository method and state), hikaricp.connections.* and hibernate.* (with hibernate-micrometer and
+ * generate_statistics). This adds the service layer: every public method of a class annotated with @Timed(SERVICE_TIMER)
+ * is timed, tagged by class, method and exception. Percentiles and histogram buckets are configured per metric
+ * in application.yml (management.metrics.distribution), they are all scraped from /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    public static final String SERVICE_TIMER = "hogwarts.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
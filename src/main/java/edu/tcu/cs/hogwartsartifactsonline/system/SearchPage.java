@@ -0,0 +1,15 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of ranked search results.
+ * Unlike a CursorPage the results are ordered by relevance, so pages are addressed by number.
+ */
+public record SearchPage<T>(List<T> content, int page, int size, long totalHits) {
+
+    public <R> SearchPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new SearchPage<>(this.content.stream().<R>map(mapper).toList(), this.page, this.size, this.totalHits);
+    }
+}
@@ -0,0 +1,10 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+/**
+ * A response body along with the ETag of the versions it was built from, so a conditional GET can be answered
+ * from the same read (or cache entry) as the body instead of a separate version query.
+ * @param body The representation.
+ * @param eTag Its ETag value without quotes, see ETags.
+ */
+public record Tagged<T>(T body, String eTag) {
+}
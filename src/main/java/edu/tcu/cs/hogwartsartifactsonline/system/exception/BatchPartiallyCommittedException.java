@@ -0,0 +1,24 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.exception;
+
+/**
+ * A batch written in chunks of one transaction each failed: the chunks before the failing one stay committed,
+ * the failing one was rolled back and the ones after it were not written.
+ */
+public class BatchPartiallyCommittedException extends RuntimeException {
+
+    private final int committedItems;
+
+    /**
+     * @param committedItems How many items, counted from the start of the request, were written before the failure.
+     * @param cause Why the chunk failed.
+     */
+    public BatchPartiallyCommittedException(int committedItems, Throwable cause) {
+        super(String.format("The batch failed after its first %d items were written, the items from index %d on were not written.",
+                committedItems, committedItems), cause);
+        this.committedItems = committedItems;
+    }
+
+    public int getCommittedItems() {
+        return committedItems;
+    }
+}
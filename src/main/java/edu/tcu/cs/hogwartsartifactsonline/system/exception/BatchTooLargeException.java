@@ -0,0 +1,8 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.exception;
+
+public class BatchTooLargeException extends RuntimeException {
+
+    public BatchTooLargeException(int items, int maxItems) {
+        super(String.format("The batch has %d items, at most %d are allowed, split it into several requests.", items, maxItems));
+    }
+}
@@ -0,0 +1,21 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.exception;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+public class BatchValidationException extends RuntimeException {
+
+    private final SortedMap<Integer, Map<String, String>> errors;
+
+    /**
+     * @param errors The field errors (field name to message) of each invalid item, keyed by the item's index in the request.
+     */
+    public BatchValidationException(SortedMap<Integer, Map<String, String>> errors) {
+        super("Provided arguments are invalid, see data for details.");
+        this.errors = errors;
+    }
+
+    public SortedMap<Integer, Map<String, String>> getErrors() {
+        return errors;
+    }
+}
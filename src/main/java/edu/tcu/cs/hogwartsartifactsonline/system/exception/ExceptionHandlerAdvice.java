@@ -2,6 +2,7 @@ package edu.tcu.cs.hogwartsartifactsonline.system.exception;
 
 import edu.tcu.cs.hogwartsartifactsonline.system.Result;
 import edu.tcu.cs.hogwartsartifactsonline.system.StatusCode;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AccountStatusException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import org.springframework.security.access.AccessDeniedException;
 import java.util.HashMap;
@@ -72,6 +74,31 @@ public class ExceptionHandlerAdvice {
 //        return generateErrorMap(errors);
     }
 
+    /**
+     * Invalid items of a batch request, the data is keyed by the index of the item in the request.
+     */
+    @ExceptionHandler(BatchValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result handleBatchValidationException(BatchValidationException ex) {
+        return new Result(false, StatusCode.INVALID_ARGUMENT.getHttpStatusCodeValue(), ex.getMessage(), ex.getErrors());
+    }
+
+    /**
+     * A chunk of a batch request failed, the data tells the client how many items of the request were written.
+     */
+    @ExceptionHandler(BatchPartiallyCommittedException.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    Result handleBatchPartiallyCommittedException(BatchPartiallyCommittedException ex) {
+        return new Result(false, StatusCode.INTERNAL_SERVER_ERROR.getHttpStatusCodeValue(), ex.getMessage(),
+                Map.of("committedItems", ex.getCommittedItems()));
+    }
+
+    @ExceptionHandler({InvalidCursorException.class, InvalidFilterException.class, InvalidPageException.class, BatchTooLargeException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result handleInvalidCursorException(RuntimeException ex) {
+        return new Result(false, StatusCode.INVALID_ARGUMENT.getHttpStatusCodeValue(), ex.getMessage());
+    }
+
     @ExceptionHandler(InsufficientAuthenticationException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     Result handleInsufficientAuthenticationException(InsufficientAuthenticationException ex) {
@@ -101,6 +128,24 @@ public class ExceptionHandlerAdvice {
         return new Result(false, StatusCode.UNAUTHORIZED.getHttpStatusCodeValue(), "User account is abnormal.", ex.getMessage());
     }
 
+    /**
+     * The password hashing pool is full, the login was not attempted.
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    Result handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        return new Result(false, StatusCode.SERVICE_UNAVAILABLE.getHttpStatusCodeValue(), ex.getMessage());
+    }
+
+    /**
+     * The artifact read executor is full or an asynchronous request took too long.
+     */
+    @ExceptionHandler({TaskRejectedException.class, AsyncRequestTimeoutException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    Result handleTaskRejectedException(Exception ex) {
+        return new Result(false, StatusCode.SERVICE_UNAVAILABLE.getHttpStatusCodeValue(), "Too many requests at the moment, please try again later.");
+    }
+
     @ExceptionHandler(InvalidBearerTokenException.class)
     @ResponseStatus(HttpStatus.UNAUTHORIZED) // "UNAUTHORIZED" really means "unauthenticated"
     Result handleInvalidBearerTokenException(InvalidBearerTokenException ex) { // note the generic "Exception" object
@@ -0,0 +1,8 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String cursor) {
+        super(String.format("The cursor %s is not valid.", cursor));
+    }
+}
@@ -0,0 +1,8 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.exception;
+
+public class InvalidFilterException extends RuntimeException {
+
+    public InvalidFilterException(String filters) {
+        super(String.format("Only one of %s can be used at a time.", filters));
+    }
+}
@@ -0,0 +1,8 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.exception;
+
+public class InvalidPageException extends RuntimeException {
+
+    public InvalidPageException(int page, int size, int maxResults) {
+        super(String.format("The page %d of size %d is beyond the first %d results, refine the search instead.", page, size, maxResults));
+    }
+}
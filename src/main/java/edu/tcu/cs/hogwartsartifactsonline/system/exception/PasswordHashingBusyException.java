@@ -0,0 +1,14 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing executor has no room left for another hash. It is an AuthenticationException
+ * so a rejected login goes through the authentication entry point like any other failed login.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.idworker;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A (datacenter id, worker id) pair of the IdWorker held by one running instance until expiresAt.
+ * The slot is datacenterId * 32 + workerId.
+ */
+@Entity
+public class IdWorkerLease implements Serializable {
+
+    @Id
+    private Integer slot;
+
+    private String owner;
+
+    private Instant expiresAt;
+
+    /**
+     * also makes Spring Data persist (instead of merge) a new lease, so inserting a slot another instance
+     * already holds fails instead of overwriting its lease.
+     */
+    @Version
+    private Long version;
+
+    public IdWorkerLease() {
+    }
+
+    public IdWorkerLease(Integer slot, String owner, Instant expiresAt) {
+        this.slot = slot;
+        this.owner = owner;
+        this.expiresAt = expiresAt;
+    }
+
+    public Integer getSlot() {
+        return slot;
+    }
+
+    public void setSlot(Integer slot) {
+        this.slot = slot;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,42 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.idworker;
+
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface IdWorkerLeaseRepository extends JpaRepository<IdWorkerLease, Integer> {
+
+    List<IdWorkerLease> findByExpiresAtBeforeOrderBySlotAsc(Instant now);
+
+    @Query("select l.slot from IdWorkerLease l")
+    List<Integer> findAllSlots();
+
+    /**
+     * The expiresAt condition makes taking over a lease atomic, only one of two instances racing for it updates the row.
+     * @return 1 if the lease was taken over, 0 if someone renewed or took it first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update versioned IdWorkerLease l set l.owner = :owner, l.expiresAt = :expiresAt where l.slot = :slot and l.expiresAt < :now")
+    int takeOver(@Param("slot") Integer slot, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    /**
+     * @return 1 if the lease was extended, 0 if it has been taken over by another instance.
+     */
+    @Transactional
+    @Modifying
+    @Query("update versioned IdWorkerLease l set l.expiresAt = :expiresAt where l.slot = :slot and l.owner = :owner")
+    int renew(@Param("slot") Integer slot, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdWorkerLease l where l.slot = :slot and l.owner = :owner")
+    int release(@Param("slot") Integer slot, @Param("owner") String owner);
+}
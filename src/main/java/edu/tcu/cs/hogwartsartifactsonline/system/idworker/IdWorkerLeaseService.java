@@ -0,0 +1,233 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.idworker;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Hands out a (datacenter id, worker id) pair for the IdWorker that no other running instance is using,
+ * by leasing one of the 1024 slots in the id_worker_lease table. The lease is renewed in the background and released on shutdown,
+ * the slot of an instance that died is taken over once its lease has expired.
+ *
+ * It fails closed: the IdWorker asks for the slot on every id (currentSlot) and gets an IllegalStateException once the
+ * lease has run out without being renewed, e.g., while the database is unreachable, so no id is generated with a slot
+ * another instance may have taken over. If the lease turns out to be taken over the next renewal leases another slot.
+ *
+ * Instances configured with a fixed pair lease that slot (pin) under their own owner id like any other lease, renewed,
+ * released and failing closed the same way, so a second instance configured with the same pair fails to start instead
+ * of sharing it. A pinned instance that lost its lease waits for the slot to free up rather than lease another one.
+ * Leasing instances take the lowest free slots first, configure pairs at the top of the range to stay clear of them.
+ */
+@Service
+public class IdWorkerLeaseService implements IdWorker.SlotProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdWorkerLeaseService.class);
+
+    private static final int SLOTS = (int) ((IdWorker.maxDatacenterId + 1) * (IdWorker.maxWorkerId + 1));
+
+    /**
+     * A lease is given up this long before it expires, in case this instance's clock is behind the others'.
+     */
+    private static final Duration CLOCK_SKEW_ALLOWANCE = Duration.ofSeconds(5);
+
+    private final IdWorkerLeaseRepository idWorkerLeaseRepository;
+
+    private final Duration leaseDuration;
+
+    private final Clock clock;
+
+    /**
+     * Unique per running instance, even for two instances on the same host.
+     */
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    private volatile Integer slot;
+
+    /**
+     * Written before slot, so a reader seeing a slot also sees its validity.
+     */
+    private volatile long validUntilMillis;
+
+    /**
+     * The configured slot, null for a leasing instance.
+     */
+    private volatile Integer pinnedSlot;
+
+    @Autowired
+    public IdWorkerLeaseService(IdWorkerLeaseRepository idWorkerLeaseRepository,
+                                @Value("${hogwarts.id-worker.lease-duration}") Duration leaseDuration) {
+        this(idWorkerLeaseRepository, leaseDuration, Clock.systemUTC());
+    }
+
+    IdWorkerLeaseService(IdWorkerLeaseRepository idWorkerLeaseRepository, Duration leaseDuration, Clock clock) {
+        this.idWorkerLeaseRepository = idWorkerLeaseRepository;
+        this.leaseDuration = leaseDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * @return The slot leased by this instance, datacenterId = slot / 32 and workerId = slot % 32.
+     */
+    public synchronized int claim() {
+        if (this.slot != null) {
+            return this.slot;
+        }
+        Instant now = this.clock.instant();
+        Instant expiresAt = now.plus(this.leaseDuration);
+
+        // 1. Take over a slot whose owner stopped renewing it.
+        for (IdWorkerLease expiredLease : this.idWorkerLeaseRepository.findByExpiresAtBeforeOrderBySlotAsc(now)) {
+            if (this.idWorkerLeaseRepository.takeOver(expiredLease.getSlot(), this.owner, expiresAt, now) == 1) {
+                return leased(expiredLease.getSlot(), expiresAt);
+            }
+        }
+
+        // 2. Otherwise lease a slot nobody has used yet.
+        Set<Integer> usedSlots = new HashSet<>(this.idWorkerLeaseRepository.findAllSlots());
+        for (int candidate = 0; candidate < SLOTS; candidate++) {
+            if (usedSlots.contains(candidate)) {
+                continue;
+            }
+            try {
+                this.idWorkerLeaseRepository.saveAndFlush(new IdWorkerLease(candidate, this.owner, expiresAt));
+                return leased(candidate, expiresAt);
+            } catch (DataIntegrityViolationException ex) {
+                // Another instance inserted this slot first, try the next one.
+            }
+        }
+        throw new IllegalStateException(String.format("All %d id worker slots are leased by running instances.", SLOTS));
+    }
+
+    /**
+     * Leases the configured slot for this instance.
+     * @param slot The slot of the configured pair, see slotOf.
+     * @throws IllegalStateException If another instance holds an unexpired lease on the slot, e.g., one configured with
+     * the same pair, or this instance's predecessor that crashed less than a lease duration ago.
+     */
+    public synchronized void pin(int slot) {
+        this.pinnedSlot = slot;
+        if (!leaseSlot(slot)) {
+            throw new IllegalStateException(String.format("The configured id worker slot %d (datacenter id %d, worker id %d) is leased by another instance.",
+                    slot, datacenterIdOf(slot), workerIdOf(slot)));
+        }
+    }
+
+    /**
+     * @throws IllegalStateException If this instance's lease has run out or was lost, until a slot is leased again.
+     */
+    @Override
+    public int currentSlot() {
+        Integer leasedSlot = this.slot;
+        if (leasedSlot == null || this.clock.millis() >= this.validUntilMillis) {
+            throw new IllegalStateException("This instance holds no valid id worker lease, no ids are generated until it is renewed.");
+        }
+        return leasedSlot;
+    }
+
+    public static int slotOf(long datacenterId, long workerId) {
+        if (workerId > IdWorker.maxWorkerId || workerId < 0) {
+            throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", IdWorker.maxWorkerId));
+        }
+        if (datacenterId > IdWorker.maxDatacenterId || datacenterId < 0) {
+            throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", IdWorker.maxDatacenterId));
+        }
+        return (int) (datacenterId * (IdWorker.maxWorkerId + 1) + workerId);
+    }
+
+    public static long datacenterIdOf(int slot) {
+        return slot / (IdWorker.maxWorkerId + 1);
+    }
+
+    public static long workerIdOf(int slot) {
+        return slot % (IdWorker.maxWorkerId + 1);
+    }
+
+    /**
+     * Extends the lease. If another instance took the slot over (this one could not renew in time), it is given up
+     * and another slot is leased, ids are refused in between.
+     */
+    @Scheduled(fixedRateString = "${hogwarts.id-worker.lease-renewal-interval-ms}")
+    public synchronized void renew() {
+        Integer leasedSlot = this.slot;
+        if (leasedSlot == null) {
+            // lost earlier and no slot was free then.
+            reclaim();
+            return;
+        }
+        Instant expiresAt = this.clock.instant().plus(this.leaseDuration);
+        if (this.idWorkerLeaseRepository.renew(leasedSlot, this.owner, expiresAt) == 1) {
+            this.validUntilMillis = validUntil(expiresAt);
+            return;
+        }
+        LOGGER.error("Lost the id worker lease of slot {}, no ids are generated until a slot is leased again.", leasedSlot);
+        this.slot = null;
+        reclaim();
+    }
+
+    @PreDestroy
+    public void release() {
+        Integer leasedSlot = this.slot;
+        if (leasedSlot != null) {
+            this.idWorkerLeaseRepository.release(leasedSlot, this.owner);
+        }
+    }
+
+    /**
+     * A pinned instance only ever leases its configured slot, the others any free one.
+     */
+    private void reclaim() {
+        Integer configuredSlot = this.pinnedSlot;
+        if (configuredSlot == null) {
+            claim();
+        } else if (!leaseSlot(configuredSlot)) {
+            LOGGER.error("The configured id worker slot {} is leased by another instance, no ids are generated until it is free.", configuredSlot);
+        }
+    }
+
+    /**
+     * @return Whether this instance now leases the slot, false if another instance holds an unexpired lease on it.
+     */
+    private boolean leaseSlot(int slot) {
+        Instant now = this.clock.instant();
+        Instant expiresAt = now.plus(this.leaseDuration);
+        if (!this.idWorkerLeaseRepository.existsById(slot)) {
+            try {
+                this.idWorkerLeaseRepository.saveAndFlush(new IdWorkerLease(slot, this.owner, expiresAt));
+                leased(slot, expiresAt);
+                return true;
+            } catch (DataIntegrityViolationException ex) {
+                // Another instance inserted it first, taking it over below fails unless its lease has expired.
+            }
+        }
+        if (this.idWorkerLeaseRepository.takeOver(slot, this.owner, expiresAt, now) == 1) {
+            leased(slot, expiresAt);
+            return true;
+        }
+        return false;
+    }
+
+    private int leased(int slot, Instant expiresAt) {
+        this.validUntilMillis = validUntil(expiresAt);
+        this.slot = slot;
+        LOGGER.info("Leased id worker slot {} (datacenter id {}, worker id {}).", slot, datacenterIdOf(slot), workerIdOf(slot));
+        return slot;
+    }
+
+    private static long validUntil(Instant expiresAt) {
+        return expiresAt.minus(CLOCK_SKEW_ALLOWANCE).toEpochMilli();
+    }
+}
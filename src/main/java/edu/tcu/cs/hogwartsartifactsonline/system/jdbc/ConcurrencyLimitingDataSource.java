@@ -0,0 +1,107 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most limit callers hold a connection at a time, the others wait in a fair queue for one of them to close theirs.
+ *
+ * With virtual threads every request gets its own thread, so thousands of them can reach the connection pool at once.
+ * Waiting on the semaphore parks a virtual thread cheaply, while the JDBC driver and the pool block in synchronized code
+ * that pins the carrier thread. With the limit set to the pool size only as many threads as there are connections
+ * are ever inside JDBC code.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+
+    private final Duration acquireTimeout;
+
+    public ConcurrencyLimitingDataSource(DataSource targetDataSource, int limit, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return limit(() -> obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return limit(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * @return The number of callers waiting for a connection.
+     */
+    public int getQueueLength() {
+        return this.permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!this.permits.tryAcquire(this.acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException("No connection available within " + this.acquireTimeout + ", "
+                        + this.permits.getQueueLength() + " callers are waiting.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection.", ex);
+        }
+    }
+
+    /**
+     * The permit is released when the returned connection is closed (the first time only).
+     */
+    private Connection limit(ConnectionSupplier connectionSupplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = connectionSupplier.get();
+        } catch (SQLException | RuntimeException ex) {
+            this.permits.release();
+            throw ex;
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        if (closed.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                this.permits.release();
+                            }
+                        }
+                        yield null;
+                    }
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        try {
+                            yield method.invoke(connection, args);
+                        } catch (InvocationTargetException ex) {
+                            throw ex.getTargetException();
+                        }
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
@@ -0,0 +1,62 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Checks, right before a response body is serialized, that the request no longer holds a JDBC connection.
+ * With Open-Session-In-View off the services return DTOs and their transactions (and connections) end before this point,
+ * so serializing a response never holds one of the pool's connections. A request that does is counted in
+ * hogwarts.sql.connection.held.at.serialization and logged.
+ * Streamed responses (StreamingResponseBody, /artifacts/export) hold their cursor on purpose and are not checked.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "hogwarts.sql.accounting", havingValue = "true")
+public class ConnectionReleaseCheck implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionReleaseCheck.class);
+
+    private final MeterRegistry meterRegistry;
+
+    public ConnectionReleaseCheck(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletServerHttpRequest) {
+            HttpServletRequest servletRequest = servletServerHttpRequest.getServletRequest();
+            if (servletRequest.getAttribute(SqlStatistics.REQUEST_ATTRIBUTE) instanceof SqlStatistics statistics
+                    && statistics.serializationStarted()) {
+                Object pattern = servletRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+                Counter.builder("hogwarts.sql.connection.held.at.serialization")
+                        .tags("method", servletRequest.getMethod(), "uri", uri)
+                        .register(this.meterRegistry)
+                        .increment();
+                logger.warn("{} {} still holds a connection while its response is serialized", servletRequest.getMethod(), uri);
+            }
+        }
+        return body;
+    }
+}
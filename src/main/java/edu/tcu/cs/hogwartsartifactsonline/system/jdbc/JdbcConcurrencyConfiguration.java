@@ -0,0 +1,28 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * The JDBC concurrency limit (see ConcurrencyLimitingDataSource), off unless hogwarts.jdbc.concurrency-limit is above 0.
+ */
+@Configuration
+public class JdbcConcurrencyConfiguration {
+
+    /**
+     * Static since a BeanPostProcessor has to be created before the other beans, which is also why the properties are
+     * bound here instead of injected.
+     */
+    @Bean
+    @ConditionalOnExpression("${hogwarts.jdbc.concurrency-limit} > 0")
+    public static JdbcConcurrencyLimiter jdbcConcurrencyLimiter(Environment environment) {
+        Binder binder = Binder.get(environment);
+        return new JdbcConcurrencyLimiter(binder.bind("hogwarts.jdbc.concurrency-limit", Integer.class).get(),
+                binder.bind("hogwarts.jdbc.acquire-timeout", Duration.class).get());
+    }
+}
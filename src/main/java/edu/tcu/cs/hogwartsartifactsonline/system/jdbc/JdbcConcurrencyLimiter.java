@@ -0,0 +1,41 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the DataSource in a ConcurrencyLimitingDataSource, registered by JdbcConcurrencyConfiguration when
+ * hogwarts.jdbc.concurrency-limit is above 0, which the virtual-threads profile turns on (see application-virtual-threads.yml).
+ */
+public class JdbcConcurrencyLimiter implements BeanPostProcessor, Ordered {
+
+    private final int concurrencyLimit;
+
+    private final Duration acquireTimeout;
+
+    public JdbcConcurrencyLimiter(int concurrencyLimit, Duration acquireTimeout) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+            return new ConcurrencyLimitingDataSource(dataSource, this.concurrencyLimit, this.acquireTimeout);
+        }
+        return bean;
+    }
+
+    /**
+     * Right after the replica routing (a PriorityOrdered post processor, so it runs first anyway) and before the
+     * unordered SQL accounting, so the limit covers the replicas' connections too and the accounting, wrapped around
+     * it, times the statements and not the wait for a permit.
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,148 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs the SQL statements executed through SqlAccountingDataSource, replacing spring.jpa.show-sql which prints every
+ * statement to System.out on the request thread (all the request threads then take turns on the stdout lock).
+ *
+ * The request thread only decides whether to log a statement and puts it into a bounded buffer, one writer thread takes
+ * them out and logs them (logger hogwarts.sql). Statements slower than the slow threshold are always logged, at WARN and
+ * with a description of their bind values, the others are sampled at the sample rate and logged at INFO without them.
+ * Strings and bytes are described by their type and length only (e.g., String(68)), never their content: the bind
+ * values include password hashes (saving a user, UserRepository.updatePassword) and personal data. Numbers, booleans
+ * and nulls are logged as they are, they are what tells a slow lookup by id from a slow scan.
+ * When the buffer is full the statement is dropped rather than making the request wait, see hogwarts.sql.log.dropped.
+ */
+public class QueryLogger implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger("hogwarts.sql");
+
+    private final double sampleRate;
+
+    private final long slowThresholdNanos;
+
+    private final BlockingQueue<Entry> buffer;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param sampleRate The fraction (0 - 1) of the statements faster than the slow threshold to log.
+     * @param slowThreshold Statements taking at least this long are always logged along with their bind value types.
+     * @param bufferSize The most statements waiting to be logged.
+     */
+    public QueryLogger(double sampleRate, Duration slowThreshold, int bufferSize) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::write, "query-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Spring Boot binds every MeterBinder bean to the registry once it is ready, the data source (and so this) is created before.
+     */
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("hogwarts.sql.log.dropped", this.dropped, LongAdder::sum)
+                .description("Statements not logged because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("hogwarts.sql.log.buffer", this.buffer, BlockingQueue::size)
+                .description("Statements waiting to be logged")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Called on the thread that executed the statement, it never blocks.
+     * @param bindValues By parameter index (0 is unused), or null. Only described (see describe) if the statement was slow.
+     * @param bindCount The highest parameter index set.
+     */
+    void executed(String sql, Object[] bindValues, int bindCount, long nanos) {
+        boolean slow = nanos >= this.slowThresholdNanos;
+        if (!slow && (this.sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= this.sampleRate)) {
+            return;
+        }
+        Entry entry = new Entry(sql, slow && bindValues != null ? describe(bindValues, bindCount) : null, nanos, slow);
+        if (!this.buffer.offer(entry)) {
+            this.dropped.increment();
+        }
+    }
+
+    /**
+     * Done on the request thread so the values themselves never reach the buffer.
+     */
+    private static String[] describe(Object[] bindValues, int bindCount) {
+        String[] descriptions = new String[bindCount];
+        for (int i = 1; i <= bindCount; i++) {
+            descriptions[i - 1] = describe(bindValues[i]);
+        }
+        return descriptions;
+    }
+
+    static String describe(Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            return String.valueOf(value);
+        }
+        if (value instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        if (value instanceof byte[] bytes) {
+            return "byte[" + bytes.length + "]";
+        }
+        return value.getClass().getSimpleName();
+    }
+
+    private void write() {
+        while (this.running || !this.buffer.isEmpty()) {
+            try {
+                Entry entry = this.buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    entry.log();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Logs what is left in the buffer and stops the writer.
+     */
+    public void shutdown() throws InterruptedException {
+        this.running = false;
+        this.writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private record Entry(String sql, String[] bindValues, long nanos, boolean slow) {
+
+        void log() {
+            double millis = this.nanos / 1_000_000.0;
+            if (this.slow) {
+                logger.warn("Slow statement ({} ms): {} {}", String.format(Locale.ROOT, "%.3f", millis), this.sql,
+                        this.bindValues == null ? "" : Arrays.toString(this.bindValues));
+            } else {
+                logger.info("{} ms: {}", String.format(Locale.ROOT, "%.3f", millis), this.sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread's work as needing the primary database even for read-only transactions, because the client
+ * just wrote something a replica may not have yet (see ReadYourWritesFilter and ReplicaRoutingDataSource).
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * @return The previous value, to be restored with restore once the work is done.
+     */
+    static boolean requirePrimary() {
+        boolean previous = isPrimaryRequired();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(boolean previous) {
+        if (previous) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Runs the work against the primary even inside a read-only transaction. Used by the read-through caches
+     * (artifacts, users): an entry loaded from a lagging replica would be served for the cache's whole time to live,
+     * also to the client that just wrote it. The routing is decided at the transaction's first statement, so the work
+     * has to run it.
+     * @return The work's result.
+     */
+    public static <T> T fromPrimary(Supplier<T> work) {
+        boolean previous = requirePrimary();
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * A TaskDecorator: the task reads from the primary if the thread that submitted it does.
+     */
+    public static Runnable propagate(Runnable task) {
+        if (!isPrimaryRequired()) {
+            return task;
+        }
+        return () -> {
+            boolean previous = requirePrimary();
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
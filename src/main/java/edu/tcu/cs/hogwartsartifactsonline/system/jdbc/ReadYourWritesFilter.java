@@ -0,0 +1,86 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes over replicas: a write request (anything but GET, HEAD, OPTIONS and TRACE) is answered with a cookie
+ * holding the time until which the client's reads must come from the primary (now + the window, which should exceed
+ * the replicas' lag). Requests carrying a cookie that has not expired yet run with ReadYourWrites.requirePrimary.
+ * The cookie makes this work across instances without any shared state, clients that ignore cookies read from the
+ * replicas right away, and so do cross-origin browser frontends unless they are listed in
+ * hogwarts.cors.credentialed-origins (see CorsConfiguration).
+ *
+ * The artifact and user caches are only filled from the primary (see ReadYourWrites.fromPrimary), otherwise a cache
+ * hit would serve what a lagging replica returned even to a client holding the cookie.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "hogwarts-read-your-writes";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return this.window.isZero() || this.window.isNegative();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean primaryRequired;
+        if (SAFE_METHODS.contains(request.getMethod())) {
+            primaryRequired = wroteRecently(request, now);
+        } else {
+            // set before the chain runs, the response may be committed by the time it returns.
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + this.window.toMillis()));
+            cookie.setMaxAge((int) Math.max(1, (this.window.toMillis() + 999) / 1000));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+            primaryRequired = true;
+        }
+        if (!primaryRequired) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean previous = ReadYourWrites.requirePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+    }
+
+    private static boolean wroteRecently(HttpServletRequest request, long now) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException ex) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
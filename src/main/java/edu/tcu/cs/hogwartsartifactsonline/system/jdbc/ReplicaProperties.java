@@ -0,0 +1,28 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * hogwarts.datasource in application.yml.
+ * @param replicas The read replicas of spring.datasource, read-only transactions are routed to them. None by default.
+ * @param readYourWrites How long a client's reads go to the primary after it wrote something, 0 turns it off.
+ */
+@ConfigurationProperties("hogwarts.datasource")
+public record ReplicaProperties(List<Replica> replicas, Duration readYourWrites) {
+
+    public ReplicaProperties {
+        replicas = replicas == null ? List.of() : List.copyOf(replicas);
+        readYourWrites = readYourWrites == null ? Duration.ZERO : readYourWrites;
+    }
+
+    /**
+     * @param maximumPoolSize The replica's own connection pool, the same size as the primary's by default.
+     * @param copyPrimary Fill the replica with a copy of the primary once the application is ready, for local in-memory
+     *                    replicas only (see ReplicaSeeder).
+     */
+    public record Replica(String url, String username, String password, Integer maximumPoolSize, boolean copyPrimary) {
+    }
+}
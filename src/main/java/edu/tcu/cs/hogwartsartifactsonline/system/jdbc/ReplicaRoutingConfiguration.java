@@ -0,0 +1,103 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas (see ReplicaRoutingDataSource), configured under hogwarts.datasource.replicas. Without replicas the
+ * DataSource is left as it is. See application-replicas.yml for a local setup.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfiguration {
+
+    /**
+     * Static since a BeanPostProcessor has to be created before the other beans, which is also why the properties are
+     * bound here instead of injected. It runs before the other DataSource post processors, so the routing is innermost
+     * and the accounting and the concurrency limit see every connection whatever database it comes from.
+     */
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(Environment environment) {
+        ReplicaProperties properties = Binder.get(environment).bind("hogwarts.datasource", ReplicaProperties.class)
+                .orElseGet(() -> new ReplicaProperties(null, null));
+        return new ReplicaRoutingPostProcessor(properties);
+    }
+
+    /**
+     * Runs before Spring Security so the user lookups of HTTP Basic logins read from the primary too.
+     */
+    @Bean
+    @ConditionalOnProperty("hogwarts.datasource.replicas[0].url")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter(properties.readYourWrites()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty("hogwarts.datasource.replicas[0].url")
+    public ReplicaSeeder replicaSeeder(DataSource dataSource, ReplicaProperties properties) {
+        return new ReplicaSeeder(dataSource, properties);
+    }
+
+    static class ReplicaRoutingPostProcessor implements BeanPostProcessor, PriorityOrdered, DisposableBean {
+
+        private final ReplicaProperties properties;
+
+        private final List<HikariDataSource> replicaPools = new ArrayList<>();
+
+        ReplicaRoutingPostProcessor(ReplicaProperties properties) {
+            this.properties = properties;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource primary) || this.properties.replicas().isEmpty()) {
+                return bean;
+            }
+            List<DataSource> replicas = new ArrayList<>();
+            for (ReplicaProperties.Replica replica : this.properties.replicas()) {
+                HikariDataSource pool = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .driverClassName(primary.getDriverClassName())
+                        .url(replica.url())
+                        .username(replica.username())
+                        .password(replica.password())
+                        .build();
+                pool.setPoolName("replica-" + (replicas.size() + 1));
+                pool.setMaximumPoolSize(replica.maximumPoolSize() != null ? replica.maximumPoolSize() : primary.getMaximumPoolSize());
+                pool.setConnectionTimeout(primary.getConnectionTimeout());
+                pool.setReadOnly(true);
+                this.replicaPools.add(pool);
+                replicas.add(pool);
+            }
+            return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void destroy() {
+            this.replicaPools.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of read-only transactions (@Transactional(readOnly = true), which includes Spring Data's own
+ * find methods) to the replicas, round-robin, and everything else to the primary. Reads that must see the client's
+ * own recent writes go to the primary as well, see ReadYourWrites.
+ *
+ * The transaction's read-only flag is only known once the transaction has begun, after the transaction manager asked
+ * for its connection, so this must be wrapped in a LazyConnectionDataSourceProxy: the actual connection (and the
+ * routing decision) is then taken at the first statement. The number of connections per target is counted in
+ * hogwarts.datasource.routing.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+
+    private final Map<String, Counter> routedConnections = new HashMap<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * @param replicas At least one replica, named replica-1, replica-2, ... in this order.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + (i + 1);
+            this.replicaKeys.add(key);
+            targetDataSources.put(key, replicas.get(i));
+        }
+        targetDataSources.keySet().forEach(key ->
+                this.routedConnections.put((String) key, Metrics.counter("hogwarts.datasource.routing", "target", (String) key)));
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = PRIMARY;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPrimaryRequired()) {
+            key = this.replicaKeys.get(Math.floorMod(this.nextReplica.getAndIncrement(), this.replicaKeys.size()));
+        }
+        this.routedConnections.get(key).increment();
+        return key;
+    }
+}
@@ -0,0 +1,55 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Copies the primary's tables and rows into the replicas configured with copy-primary, once the application is ready
+ * (DBDataInitializer has filled the primary by then). Meant for the in-memory H2 replicas of application-replicas.yml:
+ * it uses H2's SCRIPT, and the copy is taken only once, later writes never reach the replicas. Read-your-writes keeps
+ * a client's reads on the primary for a while after it wrote, after that it reads what the replicas had at startup.
+ */
+class ReplicaSeeder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaSeeder.class);
+
+    private final DataSource dataSource;
+
+    private final ReplicaProperties properties;
+
+    ReplicaSeeder(DataSource dataSource, ReplicaProperties properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    /**
+     * Runs before the other listeners of the event, which may already read from the replicas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void seed() {
+        // outside of a transaction, so it is read from the primary.
+        List<String> script = new JdbcTemplate(this.dataSource).queryForList("script nopasswords nosettings", String.class)
+                .stream()
+                .filter(statement -> !statement.startsWith("--")) // row counts, not statements.
+                .toList();
+        for (ReplicaProperties.Replica replica : this.properties.replicas()) {
+            if (!replica.copyPrimary()) {
+                continue;
+            }
+            JdbcTemplate replicaTemplate = new JdbcTemplate(new DriverManagerDataSource(replica.url(), replica.username(), replica.password()));
+            replicaTemplate.execute("drop all objects");
+            script.forEach(replicaTemplate::execute);
+            LOGGER.info("Copied the primary into the replica {} ({} statements).", replica.url(), script.size());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Per-request SQL accounting (see SqlAccountingFilter, turned off with hogwarts.sql.accounting: false) and query logging
+ * (see QueryLogger, turned off with hogwarts.sql.log.enabled: false). Both are fed by SqlAccountingDataSource.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlAccountingProperties.class)
+public class SqlAccountingConfiguration {
+
+    /**
+     * Static since a BeanPostProcessor has to be created before the other beans.
+     */
+    @Bean
+    @ConditionalOnExpression("${hogwarts.sql.accounting} or ${hogwarts.sql.log.enabled}")
+    public static BeanPostProcessor sqlAccountingDataSourcePostProcessor(ObjectProvider<QueryLogger> queryLogger) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlAccountingDataSource)) {
+                    return new SqlAccountingDataSource(dataSource, queryLogger.getIfAvailable());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Runs before Spring Security so the user lookups of HTTP Basic logins are counted too.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "hogwarts.sql.accounting", havingValue = "true")
+    public FilterRegistrationBean<SqlAccountingFilter> sqlAccountingFilter(SqlAccountingProperties properties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlAccountingFilter> registration = new FilterRegistrationBean<>(new SqlAccountingFilter(properties, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "hogwarts.sql.log.enabled", havingValue = "true")
+    public QueryLogger queryLogger(@Value("${hogwarts.sql.log.sample-rate}") double sampleRate,
+                                   @Value("${hogwarts.sql.log.slow-threshold}") Duration slowThreshold,
+                                   @Value("${hogwarts.sql.log.buffer-size}") int bufferSize) {
+        return new QueryLogger(sampleRate, slowThreshold, bufferSize);
+    }
+}
@@ -0,0 +1,181 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Counts the statements executed and rows fetched through its connections, and the time spent doing so, towards the
+ * SqlStatistics bound to the calling thread, as well as how long its connections are held.
+ * Threads without statistics (e.g., startup or scheduled jobs) are not counted.
+ * With a QueryLogger every statement is also handed to it along with its SQL, bind values and execution time.
+ *
+ * Every JDBC call goes through here, not only Hibernate's, which is why this is a JDBC proxy and not a Hibernate
+ * StatementInspector (that only sees the SQL text, not the rows or the time).
+ */
+public class SqlAccountingDataSource extends DelegatingDataSource {
+
+    private final QueryLogger queryLogger;
+
+    /**
+     * @param queryLogger The query logger or null to only count.
+     */
+    public SqlAccountingDataSource(DataSource targetDataSource, QueryLogger queryLogger) {
+        super(targetDataSource);
+        this.queryLogger = queryLogger;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return account(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return account(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection account(Connection connection) {
+        // the connection counts towards the request that took it from the pool, until it is closed (returned).
+        SqlStatistics statistics = SqlStatistics.current();
+        long acquired = System.nanoTime();
+        if (statistics != null) {
+            statistics.connectionAcquired();
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            if (method.getName().equals("close")) {
+                if (closed.compareAndSet(false, true)) {
+                    try {
+                        connection.close();
+                    } finally {
+                        if (statistics != null) {
+                            statistics.connectionReleased(System.nanoTime() - acquired);
+                        }
+                    }
+                }
+                return null;
+            }
+            Object result = invoke(connection, method, args);
+            // createStatement, prepareStatement and prepareCall (the latter two with the SQL as first argument).
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return account(proxy, statement, method.getReturnType(), sql);
+            }
+            return result;
+        });
+    }
+
+    private Statement account(Connection connectionProxy, Statement statement, Class<?> statementType, String preparedSql) {
+        StatementState state = new StatementState(preparedSql);
+        return (Statement) proxy(statementType, statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                SqlStatistics statistics = SqlStatistics.current();
+                long start = System.nanoTime();
+                Object result = invoke(statement, method, args);
+                long nanos = System.nanoTime() - start;
+                if (statistics != null) {
+                    statistics.statementExecuted(nanos);
+                }
+                if (this.queryLogger != null) {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : state.sql;
+                    this.queryLogger.executed(sql, state.bindValues, state.bindCount, nanos);
+                }
+                return result instanceof ResultSet resultSet ? account(resultSet) : result;
+            }
+            if (this.queryLogger != null) {
+                state.record(name, args);
+            }
+            if (name.equals("getConnection")) {
+                return connectionProxy;
+            }
+            Object result = invoke(statement, method, args);
+            // getResultSet and getGeneratedKeys.
+            return result instanceof ResultSet resultSet ? account(resultSet) : result;
+        });
+    }
+
+    private static ResultSet account(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (proxy, method, args) -> {
+            if (!method.getName().equals("next")) {
+                return invoke(resultSet, method, args);
+            }
+            SqlStatistics statistics = SqlStatistics.current();
+            long start = System.nanoTime();
+            boolean hasRow = (Boolean) invoke(resultSet, method, args);
+            if (statistics != null) {
+                if (hasRow) {
+                    statistics.rowFetched(System.nanoTime() - start);
+                } else {
+                    statistics.fetchEnded(System.nanoTime() - start);
+                }
+            }
+            return hasRow;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<?> type, T target, Handler handler) {
+        return (T) Proxy.newProxyInstance(SqlAccountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    /**
+     * The SQL of a statement (the prepared one or the last one added to a batch) and its current bind values, for the query logger.
+     */
+    private static final class StatementState {
+
+        private String sql;
+
+        private Object[] bindValues;
+
+        private int bindCount;
+
+        StatementState(String sql) {
+            this.sql = sql;
+        }
+
+        void record(String methodName, Object[] args) {
+            if (methodName.equals("addBatch") && args != null && args.length == 1 && args[0] instanceof String s) {
+                this.sql = s;
+            } else if (methodName.equals("clearParameters")) {
+                this.bindValues = null;
+                this.bindCount = 0;
+            } else if (methodName.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index && index > 0) {
+                // setString(1, "x"), setNull(2, Types.VARCHAR), ... by parameter index.
+                if (this.bindValues == null || this.bindValues.length <= index) {
+                    this.bindValues = Arrays.copyOf(this.bindValues == null ? new Object[0] : this.bindValues, Math.max(index + 1, 8));
+                }
+                this.bindValues[index] = methodName.equals("setNull") ? null : args[1];
+                this.bindCount = Math.max(this.bindCount, index);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Object proxy, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,96 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Binds a SqlStatistics to every request and, once the response is complete, records it per route:
+ * hogwarts.sql.statements and hogwarts.sql.rows (distribution summaries), hogwarts.sql.time and
+ * hogwarts.sql.connection.time (timers, the time spent in JDBC and the time connections were held).
+ * A request that runs more statements than its route's budget is logged as a warning and counted in
+ * hogwarts.sql.budget.exceeded, that is how an N+1 query (one extra query per row) shows up.
+ */
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlAccountingFilter.class);
+
+    private final SqlAccountingProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    public SqlAccountingFilter(SqlAccountingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = new SqlStatistics();
+        request.setAttribute(SqlStatistics.REQUEST_ATTRIBUTE, statistics);
+        SqlStatistics previous = SqlStatistics.bind(statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.restore(previous);
+            if (request.isAsyncStarted()) {
+                // the rest of the work runs on the artifact read executor, record once the response is written.
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, statistics);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, statistics);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("hogwarts.sql.statements").tags(tags).register(this.meterRegistry).record(statistics.getStatements());
+        DistributionSummary.builder("hogwarts.sql.rows").tags(tags).register(this.meterRegistry).record(statistics.getRows());
+        Timer.builder("hogwarts.sql.time").tags(tags).register(this.meterRegistry).record(statistics.getJdbcTime());
+        Timer.builder("hogwarts.sql.connection.time").tags(tags).register(this.meterRegistry).record(statistics.getConnectionTime());
+
+        String route = request.getMethod() + " " + uri;
+        int budget = this.properties.statementBudget(route);
+        if (statistics.getStatements() > budget) {
+            Counter.builder("hogwarts.sql.budget.exceeded").tags(tags).register(this.meterRegistry).increment();
+            logger.warn("{} ran {} (budget {} statements)", route, statistics, budget);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} ran {}", route, statistics);
+        }
+    }
+}
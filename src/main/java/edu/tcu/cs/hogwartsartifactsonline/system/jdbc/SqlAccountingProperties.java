@@ -0,0 +1,23 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * hogwarts.sql in application.yml.
+ * @param accounting Whether to count the statements, rows and JDBC time of every request.
+ * @param defaultStatementBudget The most statements a request of a route without its own budget should need.
+ * @param statementBudgets Budgets by route, keyed by "METHOD /route/{pattern}" (the same route as the uri tag of http.server.requests).
+ */
+@ConfigurationProperties("hogwarts.sql")
+public record SqlAccountingProperties(boolean accounting, int defaultStatementBudget, Map<String, Integer> statementBudgets) {
+
+    public SqlAccountingProperties {
+        statementBudgets = statementBudgets == null ? Map.of() : Map.copyOf(statementBudgets);
+    }
+
+    public int statementBudget(String route) {
+        return this.statementBudgets.getOrDefault(route, this.defaultStatementBudget);
+    }
+}
@@ -0,0 +1,146 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The JDBC work done on behalf of one HTTP request: statements executed, rows fetched and the time spent inside the driver.
+ * SqlAccountingFilter binds one to the request thread, SqlAccountingDataSource adds to whichever one is bound to the
+ * thread running the statement. Work handed to the artifact read executor keeps counting towards the request
+ * (see propagate), so the counters are thread-safe.
+ */
+public final class SqlStatistics {
+
+    /**
+     * The request attribute the statistics of a request are stored under, e.g., for tests to assert on.
+     */
+    public static final String REQUEST_ATTRIBUTE = SqlStatistics.class.getName();
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong statements = new AtomicLong();
+
+    private final AtomicLong rows = new AtomicLong();
+
+    private final AtomicLong jdbcNanos = new AtomicLong();
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    private final AtomicLong connectionNanos = new AtomicLong();
+
+    private volatile boolean connectionHeldDuringSerialization;
+
+    /**
+     * @return The statistics bound to the current thread or null if the thread is not working on a request.
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return The statistics that were bound before, to be restored with restore once the work is done.
+     */
+    static SqlStatistics bind(SqlStatistics statistics) {
+        SqlStatistics previous = CURRENT.get();
+        CURRENT.set(statistics);
+        return previous;
+    }
+
+    static void restore(SqlStatistics previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * A TaskDecorator: the task counts towards the statistics of the thread that submitted it.
+     */
+    public static Runnable propagate(Runnable task) {
+        SqlStatistics statistics = current();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatistics previous = bind(statistics);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    void statementExecuted(long nanos) {
+        this.statements.incrementAndGet();
+        this.jdbcNanos.addAndGet(nanos);
+    }
+
+    void rowFetched(long nanos) {
+        this.rows.incrementAndGet();
+        this.jdbcNanos.addAndGet(nanos);
+    }
+
+    void fetchEnded(long nanos) {
+        this.jdbcNanos.addAndGet(nanos);
+    }
+
+    void connectionAcquired() {
+        this.openConnections.incrementAndGet();
+    }
+
+    void connectionReleased(long heldNanos) {
+        this.openConnections.decrementAndGet();
+        this.connectionNanos.addAndGet(heldNanos);
+    }
+
+    /**
+     * Called right before the response body is serialized.
+     * @return Whether the request still holds a connection, i.e., the connection is held while the response is written.
+     */
+    boolean serializationStarted() {
+        if (this.openConnections.get() > 0) {
+            this.connectionHeldDuringSerialization = true;
+        }
+        return this.connectionHeldDuringSerialization;
+    }
+
+    /**
+     * @return The number of statements sent to the database, a JDBC batch counts as one.
+     */
+    public long getStatements() {
+        return this.statements.get();
+    }
+
+    public long getRows() {
+        return this.rows.get();
+    }
+
+    /**
+     * @return The time spent executing statements and fetching their rows.
+     */
+    public Duration getJdbcTime() {
+        return Duration.ofNanos(this.jdbcNanos.get());
+    }
+
+    /**
+     * @return How long the request held connections, from getConnection to close, summed over its connections.
+     */
+    public Duration getConnectionTime() {
+        return Duration.ofNanos(this.connectionNanos.get());
+    }
+
+    /**
+     * @return Whether a connection was still held when the response body started to be serialized.
+     */
+    public boolean isConnectionHeldDuringSerialization() {
+        return this.connectionHeldDuringSerialization;
+    }
+
+    @Override
+    public String toString() {
+        return this.statements.get() + " statements, " + this.rows.get() + " rows, " + getJdbcTime().toMillis() + " ms in JDBC";
+    }
+}
@@ -2,16 +2,28 @@ package edu.tcu.cs.hogwartsartifactsonline.wizard;
 
 import edu.tcu.cs.hogwartsartifactsonline.artifact.Artifact;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * DynamicUpdate: only the changed columns are written, so saving a wizard (e.g., a new name) never writes back
+ * a stale numberOfArtifacts over a count that was adjusted in the database by WizardRepository.
+ */
 @Entity
+@DynamicUpdate
 public class Wizard implements Serializable {
 
+    /**
+     * pooled sequence: one round-trip to wizard_seq hands out the next 50 ids, so creating many wizards
+     * doesn't fetch a sequence value per row.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wizard_seq")
+    @SequenceGenerator(name = "wizard_seq", sequenceName = "wizard_seq", allocationSize = 50)
     private int id;
 
     private String name;
@@ -25,6 +37,22 @@ public class Wizard implements Serializable {
     @OneToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, mappedBy = "owner")
     private List<Artifact> artifacts = new ArrayList<>();
 
+    /**
+     * Denormalized size of the artifacts collection, so counting a wizard's artifacts never loads the collection.
+     * It is kept up to date by the methods below and by WizardRepository.adjustNumberOfArtifacts,
+     * WizardArtifactCountReconciler fixes any drift. Not null with a default of 0, so the column can be added to an
+     * existing table, the reconciler sets the real counts at startup.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private int numberOfArtifacts;
+
+    /**
+     * incremented on every update (including the bulk updates of numberOfArtifacts), it is used to build the ETag of a wizard.
+     */
+    @Version
+    private Long version;
+
     public Wizard() {}
 
     public int getId() {
@@ -43,12 +71,21 @@ public class Wizard implements Serializable {
         this.name = name;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<Artifact> getArtifacts() {
         return artifacts;
     }
 
     public void setArtifacts(List<Artifact> artifacts) {
         this.artifacts = artifacts;
+        this.numberOfArtifacts = artifacts.size();
     }
 
     public void addArtifact(Artifact artifact) {
@@ -58,10 +95,11 @@ public class Wizard implements Serializable {
          */
         artifact.setOwner(this); // #1 above
         this.artifacts.add(artifact); // #2 above
+        this.numberOfArtifacts++;
     }
 
     public Integer getNumberOfArtifacts() {
-        return this.artifacts.size();
+        return this.numberOfArtifacts;
     }
 
     public void removeAllArtifacts() {
@@ -70,13 +108,16 @@ public class Wizard implements Serializable {
                         artifact -> artifact.setOwner(null)
                 );
         this.artifacts = null;
+        this.numberOfArtifacts = 0;
     }
 
     public void removeArtifact(Artifact artifactToBeAssigned) {
         // Remove artifact owner
         artifactToBeAssigned.setOwner(null);
         // remove the artifact from the artifactList of the owner.
-        this.artifacts.remove(artifactToBeAssigned);
+        if (this.artifacts.remove(artifactToBeAssigned)) {
+            this.numberOfArtifacts--;
+        }
 
     }
 }
@@ -0,0 +1,36 @@
+package edu.tcu.cs.hogwartsartifactsonline.wizard;
+
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recounts the artifacts of each wizard in case Wizard.numberOfArtifacts drifted from the artifact table, e.g., after
+ * artifacts were changed directly in the database. It runs once at startup, which also backfills the column of a
+ * database created before it existed, and then on hogwarts.wizard.artifact-count-reconciliation-cron.
+ */
+@Component
+public class WizardArtifactCountReconciler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WizardArtifactCountReconciler.class);
+
+    private final WizardRepository wizardRepository;
+
+    public WizardArtifactCountReconciler(WizardRepository wizardRepository) {
+        this.wizardRepository = wizardRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${hogwarts.wizard.artifact-count-reconciliation-cron}")
+    @Transactional
+    public void reconcile() {
+        int fixedWizards = this.wizardRepository.reconcileNumberOfArtifacts();
+        if (fixedWizards > 0) {
+            LOGGER.warn("Fixed the number of artifacts of {} wizard(s).", fixedWizards);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import edu.tcu.cs.hogwartsartifactsonline.wizard.converter.WizardToWizardDtoConv
 import edu.tcu.cs.hogwartsartifactsonline.wizard.dto.WizardDto;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,8 +29,17 @@ public class WizardController {
         this.wizardDtoToWizardConverter = wizardDtoToWizardConverter;
     }
 
+    /**
+     * @param wizardId The wizard's unique identifier.
+     * @param webRequest Used to compare the client's If-None-Match header with the current ETag.
+     * @return The wizard (or nothing along with a 304 status if the client's copy is still current).
+     */
     @GetMapping("/{wizardId}")
-    public Result findWizardById(@PathVariable int wizardId) {
+    public Result findWizardById(@PathVariable int wizardId, WebRequest webRequest) {
+        // Only the version column is read to answer a 304, the wizard itself is not loaded.
+        if (webRequest.checkNotModified(this.wizardService.findETagById(wizardId))) {
+            return null;
+        }
         Wizard foundWizard = this.wizardService.findWizardById(wizardId);
         WizardDto wizardDto = this.wizardToWizardDtoConverter.convert(foundWizard);
 
@@ -38,7 +48,10 @@ public class WizardController {
     }
 
     @GetMapping
-    public Result findAllWizards() {
+    public Result findAllWizards(WebRequest webRequest) {
+        if (webRequest.checkNotModified(this.wizardService.findAllETag())) {
+            return null;
+        }
         List<Wizard> returnedWizards = this.wizardService.findAll();
 
 //        List<WizardDto> wizardDtos = returnedWizards.stream()
@@ -81,4 +94,25 @@ public class WizardController {
         this.wizardService.assignArtifact(wizardId, artifactId);
         return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Artifact Assignment Success");
     }
+
+    /**
+     * @param wizardId The new owner.
+     * @param artifactIds The artifacts to move to the wizard.
+     * @return The number of artifacts that changed owner.
+     */
+    @PutMapping("/{wizardId}/artifacts")
+    public Result assignArtifacts(@PathVariable Integer wizardId, @RequestBody List<String> artifactIds) {
+        int moved = this.wizardService.assignArtifacts(wizardId, artifactIds);
+        return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Artifact Assignment Success", moved);
+    }
+
+    /**
+     * Moves all the artifacts of the wizard fromWizardId to the wizard wizardId.
+     * @return The number of artifacts that changed owner.
+     */
+    @PutMapping("/{wizardId}/artifacts/from/{fromWizardId}")
+    public Result transferArtifacts(@PathVariable Integer wizardId, @PathVariable Integer fromWizardId) {
+        int moved = this.wizardService.transferArtifacts(fromWizardId, wizardId);
+        return new Result(true, StatusCode.SUCCESS.getHttpStatusCodeValue(), "Artifact Transfer Success", moved);
+    }
 }
@@ -1,8 +1,54 @@
 package edu.tcu.cs.hogwartsartifactsonline.wizard;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface WizardRepository extends JpaRepository<Wizard, Integer> {
+
+    /**
+     * The increment is done by the database in a single statement, so two concurrent assignments can't lose an update
+     * the way a read-modify-write of the loaded wizard could.
+     * @param wizardId The wizard whose artifacts changed.
+     * @param delta The number of artifacts gained (or lost if negative).
+     * @return The number of updated rows.
+     */
+    @Modifying
+    @Query("update versioned Wizard w set w.numberOfArtifacts = w.numberOfArtifacts + :delta where w.id = :wizardId")
+    int adjustNumberOfArtifacts(@Param("wizardId") Integer wizardId, @Param("delta") int delta);
+
+    /**
+     * Recount the artifacts of every wizard whose numberOfArtifacts has drifted from the artifact table.
+     * @return The number of wizards that were fixed.
+     */
+    @Modifying
+    @Query("update versioned Wizard w set w.numberOfArtifacts = (select cast(count(a) as Integer) from Artifact a where a.owner = w) " +
+            "where w.numberOfArtifacts <> (select cast(count(a) as Integer) from Artifact a where a.owner = w)")
+    int reconcileNumberOfArtifacts();
+
+    /**
+     * Only reads the version column so a conditional GET can be answered without loading the wizard.
+     * @param wizardId The wizard's unique identifier.
+     * @return The wizard's version or empty if there is no such wizard.
+     */
+    @Query("select w.version from Wizard w where w.id = :wizardId")
+    Optional<Long> findVersionById(@Param("wizardId") Integer wizardId);
+
+    /**
+     * Changes whenever a wizard is added (count and last id), updated (version sum) or deleted (count).
+     * @return A fingerprint of the whole wizard table.
+     */
+    @Query("select count(w) as total, coalesce(sum(w.version), 0L) as versionSum, max(w.id) as lastId from Wizard w")
+    WizardsVersion findWizardsVersion();
+
+    interface WizardsVersion {
+        Long getTotal();
+        Long getVersionSum();
+        Integer getLastId();
+    }
 }
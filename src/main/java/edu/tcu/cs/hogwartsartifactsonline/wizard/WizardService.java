@@ -2,29 +2,39 @@ package edu.tcu.cs.hogwartsartifactsonline.wizard;
 
 import edu.tcu.cs.hogwartsartifactsonline.artifact.Artifact;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.ArtifactRepository;
-import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.ArtifactService;
+import edu.tcu.cs.hogwartsartifactsonline.system.Chunks;
+import edu.tcu.cs.hogwartsartifactsonline.system.ETags;
+import edu.tcu.cs.hogwartsartifactsonline.system.MetricsConfiguration;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.BatchValidationException;
 import edu.tcu.cs.hogwartsartifactsonline.system.exception.ObjectNotFoundException;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
 
+@Timed(MetricsConfiguration.SERVICE_TIMER)
 @Service
 @Transactional
 public class WizardService {
 
+    /**
+     * Keeps the IN lists of the bulk statements at a size every database accepts.
+     */
+    private static final int BULK_CHUNK_SIZE = 1000;
+
     private final WizardRepository wizardRepository;
 
     private final ArtifactRepository artifactRepository;
 
-    private final IdWorker idWorker;
-
-    public WizardService(WizardRepository wizardRepository, IdWorker idWorker, ArtifactRepository artifactRepository) {
+    public WizardService(WizardRepository wizardRepository, ArtifactRepository artifactRepository) {
         this.wizardRepository = wizardRepository;
         this.artifactRepository = artifactRepository;
-        this.idWorker = idWorker;
     }
 
+    @Transactional(readOnly = true)
     public Wizard findWizardById(int wizardId) {
         // #2
 //        Optional<Wizard> wizardOptional = wizardRepository.findById(wizardId);
@@ -42,15 +52,43 @@ public class WizardService {
                 .orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
     }
 
+    /**
+     * @param wizardId The wizard's unique identifier.
+     * @return The ETag of the wizard, computed from its version column only.
+     */
+    @Transactional(readOnly = true)
+    public String findETagById(int wizardId) {
+        return this.wizardRepository.findVersionById(wizardId)
+                .map(ETags::of)
+                .orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
+    }
+
+    /**
+     * @return The ETag of the wizard listing, computed from the version columns only.
+     */
+    @Transactional(readOnly = true)
+    public String findAllETag() {
+        WizardRepository.WizardsVersion version = this.wizardRepository.findWizardsVersion();
+        return ETags.of(version.getTotal(), version.getVersionSum(), version.getLastId());
+    }
+
+    @Transactional(readOnly = true)
     public List<Wizard> findAll() {
         return this.wizardRepository.findAll();
     }
 
+    /**
+     * The id is assigned by the wizard_seq sequence when the wizard is persisted.
+     */
     public Wizard save(Wizard wizard) {
-        wizard.setId((int) idWorker.nextId());
         return this.wizardRepository.save(wizard);
     }
 
+    /*
+     * The cached ArtifactDtos embed their owner's name and number of artifacts, so any change to a wizard
+     * clears the artifact cache. Wizards change far less often than artifacts are read.
+     */
+    @CacheEvict(cacheNames = ArtifactService.ARTIFACT_CACHE, allEntries = true)
     public Wizard update(int wizardId, Wizard newWizard) {
 //        Wizard oldWizard = this.findWizardById(wizardId);
 //        oldWizard.setName(newWizard.getName());
@@ -64,16 +102,20 @@ public class WizardService {
                 .orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
     }
 
+    @CacheEvict(cacheNames = ArtifactService.ARTIFACT_CACHE, allEntries = true)
     public void delete(int wizardId) {
         Wizard wizardToBeDeleted = this.wizardRepository.findById(wizardId)
                 .orElseThrow(() ->
                     new ObjectNotFoundException("wizard", wizardId)
                 );
 
-        wizardToBeDeleted.removeAllArtifacts();
+        // the artifacts are kept (unowned), one UPDATE unassigns all of them instead of loading the collection
+        // and dirty checking each artifact. The wizard's artifacts collection is not cascaded on remove so it stays unloaded.
+        this.artifactRepository.unassignOwner(wizardToBeDeleted);
         this.wizardRepository.deleteById(wizardId);
     }
 
+    @CacheEvict(cacheNames = ArtifactService.ARTIFACT_CACHE, allEntries = true)
     public void assignArtifact(Integer wizardId, String artifactId) {
         /*
          * 1. Find the artifact by id from the database.
@@ -87,12 +129,85 @@ public class WizardService {
         // 2.
         Wizard wizard = this.wizardRepository.findById(wizardId).orElseThrow(() -> new ObjectNotFoundException("wizard", wizardId));
 
-        // check if the artifact is owned by an old owner and if it is we must remove the artifact from the old owner
+        // check if the artifact is owned by an old owner and if it is we must take the artifact away from the old owner.
+        // the counts are adjusted in the database so neither wizard's artifacts collection has to be loaded.
         if(artifactToBeAssigned.getOwner() != null) {
-            artifactToBeAssigned.getOwner().removeArtifact(artifactToBeAssigned);
+            this.wizardRepository.adjustNumberOfArtifacts(artifactToBeAssigned.getOwner().getId(), -1);
         }
         // 3.
-        wizard.addArtifact(artifactToBeAssigned);
+        artifactToBeAssigned.setOwner(wizard);
+        this.wizardRepository.adjustNumberOfArtifacts(wizardId, 1);
+    }
+
+    /**
+     * The bulk version of assignArtifact. The artifacts are moved with set-based updates (one per chunk of ids)
+     * and the counts of the old owners and the wizard are adjusted in the database,
+     * so neither the artifacts nor any wizard's artifacts collection is loaded.
+     * @param wizardId The new owner.
+     * @param artifactIds The artifacts to move, every id must exist or nothing is moved.
+     * @return The number of artifacts that changed owner (artifacts the wizard already owns are not counted).
+     */
+    @CacheEvict(cacheNames = ArtifactService.ARTIFACT_CACHE, allEntries = true)
+    public int assignArtifacts(Integer wizardId, List<String> artifactIds) {
+        if (!this.wizardRepository.existsById(wizardId)) {
+            throw new ObjectNotFoundException("wizard", wizardId);
+        }
+        List<List<String>> chunks = Chunks.of(new ArrayList<>(new LinkedHashSet<>(artifactIds)), BULK_CHUNK_SIZE);
+
+        Set<String> existingIds = new HashSet<>(artifactIds.size());
+        for (List<String> chunk : chunks) {
+            existingIds.addAll(this.artifactRepository.findIdsByIdIn(chunk));
+        }
+        SortedMap<Integer, Map<String, String>> errors = new TreeMap<>();
+        for (int i = 0; i < artifactIds.size(); i++) {
+            if (!existingIds.contains(artifactIds.get(i))) {
+                errors.put(i, Map.of("id", new ObjectNotFoundException("artifact", artifactIds.get(i)).getMessage()));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BatchValidationException(errors);
+        }
+
+        Wizard wizard = this.wizardRepository.getReferenceById(wizardId);
+        int moved = 0;
+        for (List<String> chunk : chunks) {
+            for (ArtifactRepository.OwnerArtifactCount ownerCount : this.artifactRepository.countByOwnerForIds(chunk)) {
+                if (!ownerCount.getOwnerId().equals(wizardId)) {
+                    this.wizardRepository.adjustNumberOfArtifacts(ownerCount.getOwnerId(), -ownerCount.getTotal().intValue());
+                }
+            }
+            moved += this.artifactRepository.assignOwner(wizard, chunk);
+        }
+        if (moved > 0) {
+            this.wizardRepository.adjustNumberOfArtifacts(wizardId, moved);
+        }
+        return moved;
+    }
+
+    /**
+     * Moves every artifact of one wizard to another with a single UPDATE, again without loading any artifacts.
+     * @param fromWizardId The current owner.
+     * @param toWizardId The new owner.
+     * @return The number of artifacts that changed owner.
+     */
+    @CacheEvict(cacheNames = ArtifactService.ARTIFACT_CACHE, allEntries = true)
+    public int transferArtifacts(Integer fromWizardId, Integer toWizardId) {
+        if (!this.wizardRepository.existsById(fromWizardId)) {
+            throw new ObjectNotFoundException("wizard", fromWizardId);
+        }
+        if (!this.wizardRepository.existsById(toWizardId)) {
+            throw new ObjectNotFoundException("wizard", toWizardId);
+        }
+        if (fromWizardId.equals(toWizardId)) {
+            return 0;
+        }
+        int moved = this.artifactRepository.transferOwner(this.wizardRepository.getReferenceById(fromWizardId),
+                this.wizardRepository.getReferenceById(toWizardId));
+        if (moved > 0) {
+            this.wizardRepository.adjustNumberOfArtifacts(fromWizardId, -moved);
+            this.wizardRepository.adjustNumberOfArtifacts(toWizardId, moved);
+        }
+        return moved;
     }
 
 }
@@ -0,0 +1,117 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.search.ArtifactSearchIndex;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.BatchPartiallyCommittedException;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.WizardRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+/**
+ * The batch is written in chunks of 2 items, each in a transaction of its own.
+ */
+@ExtendWith(MockitoExtension.class)
+class ArtifactBatchServiceTest {
+
+    @Mock
+    ArtifactRepository artifactRepository;
+
+    @Mock
+    WizardRepository wizardRepository;
+
+    @Mock
+    IdWorker idWorker;
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    ArtifactSearchIndex artifactSearchIndex;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    CacheManager cacheManager;
+
+    @Mock
+    Cache artifactCache;
+
+    ArtifactBatchService artifactBatchService;
+
+    @BeforeEach
+    void setUp() {
+        given(this.cacheManager.getCache(ArtifactService.ARTIFACT_CACHE)).willReturn(this.artifactCache);
+        given(this.transactionManager.getTransaction(any())).willAnswer(invocation -> new SimpleTransactionStatus());
+        this.artifactBatchService = new ArtifactBatchService(this.artifactRepository, this.wizardRepository, this.idWorker,
+                this.entityManager, this.artifactSearchIndex, this.transactionManager, this.cacheManager, 2);
+    }
+
+    @Test
+    void testSaveAllStopsAtFailedChunkAndReportsCommittedItems() {
+        // Given
+        List<Artifact> newArtifacts = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Artifact artifact = new Artifact();
+            artifact.setName("Remembrall " + i);
+            newArtifacts.add(artifact);
+        }
+        given(this.idWorker.nextIds(5)).willReturn(new long[]{1, 2, 3, 4, 5});
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("value too long for column description");
+        given(this.artifactRepository.saveAll(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0))
+                .willThrow(failure);
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.artifactBatchService.saveAll(newArtifacts));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(BatchPartiallyCommittedException.class)
+                .hasMessage("The batch failed after its first 2 items were written, the items from index 2 on were not written.")
+                .hasCause(failure);
+        assertThat(((BatchPartiallyCommittedException) thrown).getCommittedItems()).isEqualTo(2);
+        verify(this.artifactRepository, times(2)).saveAll(anyList()); // the third chunk is not written.
+        verify(this.transactionManager, times(1)).commit(any());
+        verify(this.transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void testDeleteAllClearsCacheForEveryCommittedChunk() {
+        // Given
+        List<String> ids = List.of("1250808601744904191", "1250808601744904192", "1250808601744904193");
+        given(this.artifactRepository.findIdsByIdIn(List.of("1250808601744904191", "1250808601744904192")))
+                .willReturn(List.of("1250808601744904191", "1250808601744904192"));
+        given(this.artifactRepository.countByOwnerForIds(anyList())).willReturn(List.of());
+        given(this.artifactRepository.findIdsByIdIn(List.of("1250808601744904193")))
+                .willThrow(new DataIntegrityViolationException("connection lost"));
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.artifactBatchService.deleteAll(ids));
+
+        // Then
+        assertThat(thrown).isInstanceOf(BatchPartiallyCommittedException.class);
+        assertThat(((BatchPartiallyCommittedException) thrown).getCommittedItems()).isEqualTo(2);
+        verify(this.artifactRepository).deleteAllByIdInBatch(List.of("1250808601744904191", "1250808601744904192"));
+        verify(this.artifactCache, times(1)).clear();
+    }
+}
@@ -2,6 +2,7 @@ package edu.tcu.cs.hogwartsartifactsonline.artifact;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.tcu.cs.hogwartsartifactsonline.system.StatusCode;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.Wizard;
 import org.hamcrest.Matchers;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,10 +20,20 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static edu.tcu.cs.hogwartsartifactsonline.system.jdbc.SqlResultMatchers.sql;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -169,7 +180,9 @@ public class ArtifactControllerIntegrationTest {
                 .andExpect(jsonPath("$.data.id").value("1250808601744904192"))
                 .andExpect(jsonPath("$.data.name").value("Updated artifact name"))
                 .andExpect(jsonPath("$.data.description").value("Updated description"))
-                .andExpect(jsonPath("$.data.imageUrl").value("Updated imageUrl"));
+                .andExpect(jsonPath("$.data.imageUrl").value("Updated imageUrl"))
+                .andExpect(jsonPath("$.data.owner.name").value("Harry Potter")) // the lazy owner is converted inside the service's transaction.
+                .andExpect(sql().connectionReleasedBeforeSerialization());
     }
 
     @Test
@@ -223,6 +236,7 @@ public class ArtifactControllerIntegrationTest {
 
     @Test
     @DisplayName("Check deleteArtifact with valid input (DELETE)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
     void testDeleteArtifactSuccess() throws Exception {
         this.mockMvc.perform(delete(this.baseUrl + "/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
                 .andExpect(jsonPath("$.flag").value(true))
@@ -233,6 +247,9 @@ public class ArtifactControllerIntegrationTest {
                 .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND.getHttpStatusCodeValue()))
                 .andExpect(jsonPath("$.message").value("Could not find artifact with Id 1250808601744904191 :("))
                 .andExpect(jsonPath("$.data").isEmpty());
+        // The Deluminator belonged to Albus Dumbledore, who owned two artifacts.
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/1").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(1));
     }
 
     @Test
@@ -245,4 +262,409 @@ public class ArtifactControllerIntegrationTest {
                 .andExpect(jsonPath("$.data").isEmpty());
     }
 
+    @Test
+    @DisplayName("Check findAllArtifacts one page at a time (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindArtifactsPageSuccess() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("size", "4").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Find Page Success"))
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(4)))
+                .andExpect(jsonPath("$.data.content[0].id").value("1250808601744904191"))
+                .andExpect(jsonPath("$.data.nextCursor").isNotEmpty())
+                .andReturn();
+        String nextCursor = new JSONObject(mvcResult.getResponse().getContentAsString()).getJSONObject("data").getString("nextCursor");
+
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("size", "4").param("cursor", nextCursor).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.data.content[0].id").value("1250808601744904195"))
+                .andExpect(jsonPath("$.data.nextCursor").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Check findAllArtifacts with an invalid cursor (GET)")
+    void testFindArtifactsPageErrorWithInvalidCursor() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("cursor", "not*a*cursor").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("The cursor not*a*cursor is not valid."));
+    }
+
+    @Test
+    @DisplayName("Check exportArtifacts writes one artifact per line (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testExportArtifactsSuccess() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get(this.baseUrl + "/artifacts/export").header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(6);
+        for (String line : lines) {
+            assertThat(new JSONObject(line).getString("id")).isNotEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Check exportArtifacts without authentication (GET)")
+    void testExportArtifactsWithoutToken() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Check findAllArtifacts runs the same number of statements no matter how many owners there are (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindAllArtifactsStatementCountIsConstant() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(6)))
+                .andExpect(sql().statements(2)) // The ETag's version query and the artifacts with their owners.
+                .andExpect(sql().rows(7));
+
+        // Give three new wizards an artifact each.
+        for (int i = 0; i < 3; i++) {
+            Wizard w = new Wizard();
+            w.setName("Wizard " + i);
+            MvcResult wizardResult = this.mockMvc.perform(post(this.baseUrl + "/wizards").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(w)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                    .andReturn();
+            int wizardId = new JSONObject(wizardResult.getResponse().getContentAsString()).getJSONObject("data").getInt("id");
+
+            Artifact a = new Artifact();
+            a.setName("Artifact " + i);
+            a.setDescription("Description");
+            a.setImageUrl("ImageUrl");
+            MvcResult artifactResult = this.mockMvc.perform(post(this.baseUrl + "/artifacts").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(a)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                    .andReturn();
+            String artifactId = new JSONObject(artifactResult.getResponse().getContentAsString()).getJSONObject("data").getString("id");
+
+            this.mockMvc.perform(put(this.baseUrl + "/wizards/" + wizardId + "/artifacts/" + artifactId).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                    .andExpect(jsonPath("$.flag").value(true));
+        }
+
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(9)))
+                .andExpect(sql().statements(2))
+                .andExpect(sql().rows(10))
+                .andExpect(sql().connectionReleasedBeforeSerialization());
+    }
+
+    @Test
+    @DisplayName("Check findArtifactById is served from the cache until the artifact is updated (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindArtifactByIdCachedUntilUpdated() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904192").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.name").value("Invisibility Cloak"));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904192").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.name").value("Invisibility Cloak"));
+
+        Artifact a = new Artifact();
+        a.setName("Updated artifact name");
+        a.setDescription("Updated description");
+        a.setImageUrl("Updated imageUrl");
+        this.mockMvc.perform(put(this.baseUrl + "/artifacts/1250808601744904192").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(a)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904192").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.name").value("Updated artifact name"));
+        this.mockMvc.perform(get(this.baseUrl + "/caches").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.artifacts.hitCount").value(1))
+                .andExpect(jsonPath("$.data.artifacts.missCount").value(2));
+    }
+
+    @Test
+    @DisplayName("Check findArtifactById answers 304 until the artifact changes (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindArtifactByIdNotModified() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andExpect(sql().statements(0)); // The cached artifact carries its ETag.
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        // Giving the Deluminator to Harry Potter changes the artifact.
+        this.mockMvc.perform(put(this.baseUrl + "/wizards/2/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.owner.name").value("Harry Potter"));
+    }
+
+    @Test
+    @DisplayName("Check a page of findAllArtifacts answers 304 from its own rows until one of them changes (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindArtifactPageNotModified() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("size", "2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(sql().statements(1)) // The page with its owners, no whole-table aggregate.
+                .andReturn();
+        String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("size", "2").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(sql().statements(1));
+
+        // An artifact outside of the page does not change the page's ETag.
+        Artifact a = new Artifact();
+        a.setName("Updated artifact name");
+        a.setDescription("Updated description");
+        a.setImageUrl("Updated imageUrl");
+        this.mockMvc.perform(put(this.baseUrl + "/artifacts/1250808601744904196").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(a)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("size", "2").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+
+        this.mockMvc.perform(put(this.baseUrl + "/artifacts/1250808601744904192").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(a)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("size", "2").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[1].name").value("Updated artifact name"));
+    }
+
+    @Test
+    @DisplayName("Check findAllArtifacts with the owner, name prefix and unowned filters (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindAllArtifactsWithFilters() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("ownerId", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Find Page Success"))
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.data.content[*].owner.name", Matchers.everyItem(Matchers.is("Albus Dumbledore"))));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("namePrefix", "The ").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.content[*].name", Matchers.containsInAnyOrder("The Marauder's Map", "The Sword Of Gryffindor")));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("unowned", "true").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.data.content[0].name").value("Resurrection Stone"));
+    }
+
+    @Test
+    @DisplayName("Check findAllArtifacts with two filters (GET)")
+    void testFindAllArtifactsErrorWithTwoFilters() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").param("ownerId", "1").param("unowned", "true").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Only one of ownerId, namePrefix and unowned can be used at a time."));
+    }
+
+    @Test
+    @DisplayName("Check searchArtifacts finds new and updated artifacts (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testSearchArtifactsSuccess() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/search").param("q", "cloak").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Search Success"))
+                .andExpect(jsonPath("$.data.totalHits").value(1))
+                .andExpect(jsonPath("$.data.content[0].name").value("Invisibility Cloak"));
+
+        Artifact a = new Artifact();
+        a.setName("Cloak of Cloaking");
+        a.setDescription("A second cloak.");
+        a.setImageUrl("ImageUrl");
+        this.mockMvc.perform(post(this.baseUrl + "/artifacts").contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token).content(this.objectMapper.writeValueAsString(a)).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true));
+
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/search").param("q", "cloak").param("size", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.totalHits").value(2))
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.data.content[0].name").value("Cloak of Cloaking"));
+
+        this.mockMvc.perform(delete(this.baseUrl + "/artifacts/1250808601744904192").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/search").param("q", "invisibility").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.totalHits").value(0));
+    }
+
+    @Test
+    @DisplayName("Check addArtifacts with valid input (POST)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testAddArtifactsSuccess() throws Exception {
+        List<Artifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Artifact a = new Artifact();
+            a.setName("Remembrall " + i);
+            a.setDescription("A Remembrall was a magical large marble-sized glass ball.");
+            a.setImageUrl("ImageUrl");
+            artifacts.add(a);
+        }
+
+        this.mockMvc.perform(post(this.baseUrl + "/artifacts/batch").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(artifacts)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Batch Add Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(3)));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(9)));
+    }
+
+    @Test
+    @DisplayName("Check addArtifacts with an invalid item saves nothing (POST)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testAddArtifactsErrorWithInvalidItem() throws Exception {
+        Artifact valid = new Artifact();
+        valid.setName("Remembrall");
+        valid.setDescription("A Remembrall was a magical large marble-sized glass ball.");
+        valid.setImageUrl("ImageUrl");
+        Artifact invalid = new Artifact();
+        invalid.setName(""); // Name is not provided.
+        invalid.setDescription("Description");
+        invalid.setImageUrl("ImageUrl");
+
+        this.mockMvc.perform(post(this.baseUrl + "/artifacts/batch").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(List.of(valid, invalid))).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Provided arguments are invalid, see data for details."))
+                .andExpect(jsonPath("$.data['0']").doesNotExist())
+                .andExpect(jsonPath("$.data['1'].name").value("name is required."));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(6)));
+    }
+
+    @Test
+    @DisplayName("Check updateArtifacts with valid input and with a non-existent id (PUT)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testUpdateArtifactsSuccessAndErrorWithNonExistentId() throws Exception {
+        Artifact a1 = new Artifact();
+        a1.setId("1250808601744904191");
+        a1.setName("Updated Deluminator");
+        a1.setDescription("Updated description");
+        a1.setImageUrl("Updated imageUrl");
+        Artifact a2 = new Artifact();
+        a2.setId("1250808601744904199"); // This id does not exist in the database.
+        a2.setName("Updated artifact name");
+        a2.setDescription("Updated description");
+        a2.setImageUrl("Updated imageUrl");
+
+        this.mockMvc.perform(put(this.baseUrl + "/artifacts/batch").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(List.of(a1, a2))).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.data['1'].id").value("Could not find artifact with Id 1250808601744904199 :("));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.name").value("Deluminator"));
+
+        this.mockMvc.perform(put(this.baseUrl + "/artifacts/batch").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(List.of(a1))).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Batch Update Success"))
+                .andExpect(jsonPath("$.data").value(1));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.name").value("Updated Deluminator"));
+    }
+
+    @Test
+    @DisplayName("Check deleteArtifacts also updates the owners' number of artifacts (DELETE)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testDeleteArtifactsSuccess() throws Exception {
+        // The Deluminator and the Elder Wand belong to Albus Dumbledore, 1250808601744904199 does not exist.
+        List<String> ids = List.of("1250808601744904191", "1250808601744904193", "1250808601744904199");
+
+        this.mockMvc.perform(delete(this.baseUrl + "/artifacts/batch").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(ids)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Batch Delete Success"))
+                .andExpect(jsonPath("$.data").value(2));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(4)));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/1").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(0));
+    }
+
+    @Test
+    @DisplayName("Check deleteArtifacts with more items than allowed (DELETE)")
+    void testDeleteArtifactsErrorWithTooManyItems() throws Exception {
+        List<String> ids = Collections.nCopies(10001, "1250808601744904191");
+
+        this.mockMvc.perform(delete(this.baseUrl + "/artifacts/batch").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(ids)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("The batch has 10001 items, at most 10000 are allowed, split it into several requests."));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true));
+    }
+
+    @Test
+    @DisplayName("Check async findArtifactById and its ETag (GET)")
+    void testFindArtifactByIdAsyncSuccess() throws Exception {
+        MvcResult started = this.mockMvc.perform(get(this.baseUrl + "/artifacts/async/1250808601744904191").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult mvcResult = this.mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Find One Success"))
+                .andExpect(jsonPath("$.data.id").value("1250808601744904191"))
+                .andReturn();
+        String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult conditional = this.mockMvc.perform(get(this.baseUrl + "/artifacts/async/1250808601744904191").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(conditional))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Check async findArtifactById with non-existent id (GET)")
+    void testFindArtifactByIdAsyncNotFound() throws Exception {
+        MvcResult started = this.mockMvc.perform(get(this.baseUrl + "/artifacts/async/1250808601744904199").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(started))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Could not find artifact with Id 1250808601744904199 :("));
+    }
+
+    @Test
+    @DisplayName("Check async findArtifactPage and the streamed listing (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindAllArtifactsAsyncSuccess() throws Exception {
+        MvcResult page = this.mockMvc.perform(get(this.baseUrl + "/artifacts/async").param("size", "4").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(page))
+                .andExpect(jsonPath("$.message").value("Find Page Success"))
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(4)))
+                .andExpect(jsonPath("$.data.nextCursor").isNotEmpty());
+
+        MvcResult all = this.mockMvc.perform(get(this.baseUrl + "/artifacts/async/all").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(all))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Find All Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(6)));
+    }
+
+    @Test
+    @DisplayName("Check the streamed listing without authentication (GET)")
+    void testFindAllArtifactsAsyncWithoutToken() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/async/all").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized())
+                .andExpect(request().asyncNotStarted());
+    }
+
+    @Test
+    @DisplayName("Check async searchArtifacts (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testSearchArtifactsAsyncSuccess() throws Exception {
+        MvcResult started = this.mockMvc.perform(get(this.baseUrl + "/artifacts/async/search").param("q", "cloak").accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(started))
+                .andExpect(jsonPath("$.message").value("Search Success"))
+                .andExpect(jsonPath("$.data.content[0].name").value("Invisibility Cloak"));
+    }
 }
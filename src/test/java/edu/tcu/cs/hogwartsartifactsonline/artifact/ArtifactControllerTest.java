@@ -3,6 +3,7 @@ package edu.tcu.cs.hogwartsartifactsonline.artifact;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.dto.ArtifactDto;
 import edu.tcu.cs.hogwartsartifactsonline.system.StatusCode;
+import edu.tcu.cs.hogwartsartifactsonline.system.Tagged;
 import edu.tcu.cs.hogwartsartifactsonline.system.exception.ObjectNotFoundException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -111,7 +112,8 @@ class ArtifactControllerTest {
     @Test
     void testFindArtifactByIdSuccess() throws Exception{
         // Given
-        given(this.artifactService.findById("1250808601744904191")).willReturn(this.artifacts.get(0));
+        Artifact artifact = this.artifacts.get(0);
+        given(this.artifactService.findTaggedDtoById("1250808601744904191")).willReturn(new Tagged<>(new ArtifactDto(artifact.getId(), artifact.getName(), artifact.getDescription(), artifact.getImageUrl(), null), "0-null-null"));
 
         // When and Then
         /*
@@ -130,7 +132,7 @@ class ArtifactControllerTest {
     @Test
     void testFindArtifactByIdNotFound() throws Exception{
         // Given
-        given(this.artifactService.findById("1250808601744904191")).willThrow(new ObjectNotFoundException("artifact", "1250808601744904191"));
+        given(this.artifactService.findTaggedDtoById("1250808601744904191")).willThrow(new ObjectNotFoundException("artifact", "1250808601744904191"));
 
         // When and Then
         /*
@@ -150,7 +152,9 @@ class ArtifactControllerTest {
         // note below how we combine "when" and "then" steps in a controller.
 
         // Given
-        given(this.artifactService.findAll()).willReturn(this.artifacts);
+        given(this.artifactService.findAllDtos()).willReturn(this.artifacts.stream()
+                .map(artifact -> new ArtifactDto(artifact.getId(), artifact.getName(), artifact.getDescription(), artifact.getImageUrl(), null))
+                .toList());
 
         // When and Then
         this.mockMvc.perform(get(String.format("%s/artifacts", this.baseUrl)).accept(MediaType.APPLICATION_JSON))
@@ -214,14 +218,13 @@ class ArtifactControllerTest {
 
         String json = this.objectMapper.writeValueAsString(artifactDto); // serialized json.sssssssssssssssssssssssssssssssss
 
-        // updatedArtifact is returned from the service.
-        Artifact updatedArtifact = new Artifact();
-        updatedArtifact.setId("12508086017449041972");
-        updatedArtifact.setName("Invisibility Cloak");
-        updatedArtifact.setDescription("A new description.");
-        updatedArtifact.setImageUrl("ImageUrl");
+        // updatedArtifactDto is returned from the service.
+        ArtifactDto updatedArtifactDto = new ArtifactDto("12508086017449041972",
+                "Invisibility Cloak",
+                "A new description.",
+                "ImageUrl", null);
 
-        given(this.artifactService.update(eq("12508086017449041972"), Mockito.any(Artifact.class))).willReturn(updatedArtifact);
+        given(this.artifactService.updateDto(eq("12508086017449041972"), Mockito.any(Artifact.class))).willReturn(updatedArtifactDto);
 
         // When and Then
         this.mockMvc.perform(put(String.format("%s/artifacts/12508086017449041972", this.baseUrl)).
@@ -232,9 +235,9 @@ class ArtifactControllerTest {
                 .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS.getHttpStatusCodeValue()))
                 .andExpect(jsonPath("$.message").value("Update Success"))
                 .andExpect(jsonPath("$.data.id").value("12508086017449041972"))
-                .andExpect(jsonPath("$.data.name").value(updatedArtifact.getName()))
-                .andExpect(jsonPath("$.data.description").value(updatedArtifact.getDescription()))
-                .andExpect(jsonPath("$.data.imageUrl").value(updatedArtifact.getImageUrl()));
+                .andExpect(jsonPath("$.data.name").value(updatedArtifactDto.name()))
+                .andExpect(jsonPath("$.data.description").value(updatedArtifactDto.description()))
+                .andExpect(jsonPath("$.data.imageUrl").value(updatedArtifactDto.imageUrl()));
     }
 
     @Test
@@ -248,7 +251,7 @@ class ArtifactControllerTest {
 
         String json = this.objectMapper.writeValueAsString(artifactDto); // serialized json.
 
-        given(this.artifactService.update(eq("12508086017449041972"), Mockito.any(Artifact.class)))
+        given(this.artifactService.updateDto(eq("12508086017449041972"), Mockito.any(Artifact.class)))
                 .willThrow(new ObjectNotFoundException("artifact", "12508086017449041972"));
 
         // When and Then
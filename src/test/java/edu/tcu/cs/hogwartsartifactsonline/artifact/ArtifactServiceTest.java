@@ -1,7 +1,16 @@
 package edu.tcu.cs.hogwartsartifactsonline.artifact;
 
+import edu.tcu.cs.hogwartsartifactsonline.artifact.converter.ArtifactToArtifactDtoConverter;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.dto.ArtifactDto;
+import edu.tcu.cs.hogwartsartifactsonline.artifact.search.ArtifactSearchIndex;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import edu.tcu.cs.hogwartsartifactsonline.system.CursorPage;
+import edu.tcu.cs.hogwartsartifactsonline.system.SearchPage;
+import edu.tcu.cs.hogwartsartifactsonline.system.Tagged;
 import edu.tcu.cs.hogwartsartifactsonline.wizard.Wizard;
+import edu.tcu.cs.hogwartsartifactsonline.wizard.WizardRepository;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.InvalidFilterException;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.InvalidPageException;
 import edu.tcu.cs.hogwartsartifactsonline.system.exception.ObjectNotFoundException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +20,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +47,15 @@ class ArtifactServiceTest {
     @Mock
     IdWorker idWorker;
 
+    @Mock
+    ArtifactToArtifactDtoConverter artifactToArtifactDtoConverter;
+
+    @Mock
+    ArtifactSearchIndex artifactSearchIndex;
+
+    @Mock
+    WizardRepository wizardRepository;
+
     /**
      * We inject the artifactRepository mock into the artifactService object.
      * Note this is not a real artifactRepository object/bean.
@@ -160,6 +179,39 @@ class ArtifactServiceTest {
         verify(artifactRepository, times(1)).findById("1250808601744904192");
     }
 
+    @Test
+    void testFindDtoByIdSuccess() {
+        // Given
+        Artifact artifact = this.artifacts.get(0);
+        ArtifactDto artifactDto = new ArtifactDto(artifact.getId(), artifact.getName(), artifact.getDescription(), artifact.getImageUrl(), null);
+        given(artifactRepository.findById("1250808601744904191")).willReturn(Optional.of(artifact));
+        given(artifactToArtifactDtoConverter.convert(artifact)).willReturn(artifactDto);
+
+        // When
+        Tagged<ArtifactDto> returnedArtifactDto = artifactService.findTaggedDtoById("1250808601744904191");
+
+        // Then
+        assertThat(returnedArtifactDto.body()).isEqualTo(artifactDto);
+        assertThat(returnedArtifactDto.eTag()).isEqualTo("null-null-null"); // no version yet and no owner.
+        verify(artifactRepository, times(1)).findById("1250808601744904191");
+    }
+
+    @Test
+    void testFindTaggedDtoPageETagChangesWithPageRows() {
+        // Given
+        List<Artifact> page = this.artifacts.subList(0, 2);
+        given(artifactRepository.findAllByOrderByIdAsc(Limit.of(3))).willReturn(page);
+        String eTag = artifactService.findTaggedDtoPage(new ArtifactFilter(null, null, false), null, 2).eTag();
+
+        // When
+        page.get(1).setVersion(1L);
+        String updatedETag = artifactService.findTaggedDtoPage(new ArtifactFilter(null, null, false), null, 2).eTag();
+
+        // Then
+        assertThat(updatedETag).isNotEqualTo(eTag);
+        verify(artifactRepository, never()).findArtifactsVersion();
+    }
+
     @Test
     void testFindAllSuccess() {
         // Given
@@ -173,6 +225,107 @@ class ArtifactServiceTest {
         verify(artifactRepository, times(1)).findAll();
     }
 
+    @Test
+    void testFindAllDtosSuccess() {
+        // Given
+        given(artifactRepository.findAll()).willReturn(this.artifacts);
+        given(artifactToArtifactDtoConverter.convert(any(Artifact.class))).willAnswer(invocation -> {
+            Artifact artifact = invocation.getArgument(0);
+            return new ArtifactDto(artifact.getId(), artifact.getName(), artifact.getDescription(), artifact.getImageUrl(), null);
+        });
+
+        // When
+        List<ArtifactDto> actualArtifactDtos = artifactService.findAllDtos();
+
+        // Then
+        assertThat(actualArtifactDtos).extracting(ArtifactDto::id)
+                .containsExactlyElementsOf(this.artifacts.stream().map(Artifact::getId).toList());
+        verify(artifactToArtifactDtoConverter, times(this.artifacts.size())).convert(any(Artifact.class));
+    }
+
+    @Test
+    void testFindPageWithNextPage() {
+        // Given. Asking for a page of one returns two rows so we know there is a next page.
+        given(artifactRepository.findAllByOrderByIdAsc(Limit.of(2))).willReturn(this.artifacts);
+
+        // When
+        CursorPage<Artifact> page = artifactService.findPage(null, 1);
+
+        // Then
+        assertThat(page.content().size()).isEqualTo(1);
+        assertThat(page.content().get(0).getId()).isEqualTo("1250808601744904191");
+        assertThat(CursorPage.decodeCursor(page.nextCursor())).isEqualTo("1250808601744904191");
+        verify(artifactRepository, times(1)).findAllByOrderByIdAsc(Limit.of(2));
+    }
+
+    @Test
+    void testFindPageLastPage() {
+        // Given
+        String cursor = CursorPage.encodeCursor("1250808601744904190");
+        given(artifactRepository.findByIdGreaterThanOrderByIdAsc("1250808601744904190", Limit.of(3))).willReturn(this.artifacts);
+
+        // When
+        CursorPage<Artifact> page = artifactService.findPage(cursor, 2);
+
+        // Then
+        assertThat(page.content().size()).isEqualTo(2);
+        assertThat(page.nextCursor()).isNull();
+        verify(artifactRepository, times(1)).findByIdGreaterThanOrderByIdAsc("1250808601744904190", Limit.of(3));
+    }
+
+    @Test
+    void testFindPageByOwner() {
+        // Given
+        given(artifactRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(1, "", Limit.of(3))).willReturn(this.artifacts);
+
+        // When
+        CursorPage<Artifact> page = artifactService.findPage(new ArtifactFilter(1, null, false), null, 2);
+
+        // Then
+        assertThat(page.content()).hasSize(2);
+        assertThat(page.nextCursor()).isNull();
+        verify(artifactRepository, never()).findAllByOrderByIdAsc(any());
+    }
+
+    @Test
+    void testFindPageWithTwoFilters() {
+        // When
+        Throwable thrown = catchThrowable(() -> new ArtifactFilter(1, "The", false));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(InvalidFilterException.class)
+                .hasMessage("Only one of ownerId, namePrefix and unowned can be used at a time.");
+    }
+
+    @Test
+    void testSearchKeepsRankOrder() {
+        // Given
+        // the index ranks artifacts[1] above artifacts[0], the repository returns them in a different order.
+        List<String> rankedIds = List.of(this.artifacts.get(1).getId(), this.artifacts.get(0).getId());
+        given(artifactSearchIndex.search("cloak", 0, 20)).willReturn(new ArtifactSearchIndex.Hits(rankedIds, 2));
+        given(artifactRepository.findByIdIn(rankedIds)).willReturn(List.of(this.artifacts.get(0), this.artifacts.get(1)));
+
+        // When
+        SearchPage<Artifact> page = artifactService.search("cloak", 0, 20);
+
+        // Then
+        assertThat(page.content()).containsExactly(this.artifacts.get(1), this.artifacts.get(0));
+        assertThat(page.totalHits()).isEqualTo(2);
+    }
+
+    @Test
+    void testSearchBeyondMaxResults() {
+        // When
+        Throwable thrown = catchThrowable(() -> artifactService.search("cloak", Integer.MAX_VALUE, 20));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(InvalidPageException.class)
+                .hasMessage("The page 2147483647 of size 20 is beyond the first 10000 results, refine the search instead.");
+        verifyNoInteractions(artifactSearchIndex);
+    }
+
     @Test
     void testSaveSuccess() {
         // Given
@@ -196,6 +349,7 @@ class ArtifactServiceTest {
         assertThat(savedArtifact.getDescription()).isEqualTo(newArtifact.getDescription());
         assertThat(savedArtifact.getImageUrl()).isEqualTo(newArtifact.getImageUrl());
         verify(artifactRepository, times(1)).save(newArtifact);
+        verify(artifactSearchIndex, times(1)).index(newArtifact);
     }
 
     @Test
@@ -235,6 +389,7 @@ class ArtifactServiceTest {
         assertThat(updatedArtifact.getDescription()).isEqualTo(update.getDescription());
         verify(this.artifactRepository, times(1)).findById("1250808601744904192");
         verify(this.artifactRepository, times(1)).save(oldArtifact);
+        verify(this.artifactSearchIndex, times(1)).index(oldArtifact);
     }
 
     @Test
@@ -278,6 +433,29 @@ class ArtifactServiceTest {
 
         // Then
         verify(artifactRepository, times(1)).deleteById("1250808601744904192");
+        verify(artifactSearchIndex, times(1)).remove("1250808601744904192");
+        verify(wizardRepository, never()).adjustNumberOfArtifacts(anyInt(), anyInt()); // it has no owner.
+    }
+
+    @Test
+    void testDeleteOwnedArtifactLowersOwnersCount() {
+        // Given
+        Wizard owner = new Wizard();
+        owner.setId(2);
+        owner.setName("Harry Potter");
+        Artifact artifact = new Artifact();
+        artifact.setId("1250808601744904192");
+        artifact.setName("Invisibility Cloak");
+        owner.addArtifact(artifact);
+
+        given(artifactRepository.findById("1250808601744904192")).willReturn(Optional.of(artifact));
+
+        // When
+        artifactService.delete("1250808601744904192");
+
+        // Then
+        verify(artifactRepository, times(1)).deleteById("1250808601744904192");
+        verify(wizardRepository, times(1)).adjustNumberOfArtifacts(2, -1);
     }
 
     @Test
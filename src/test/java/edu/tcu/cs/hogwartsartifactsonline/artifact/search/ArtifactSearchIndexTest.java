@@ -0,0 +1,148 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact.search;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.Artifact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArtifactSearchIndexTest {
+
+    ArtifactSearchIndex artifactSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        // outside of a transaction the changes are applied right away, the repository is only used by rebuild().
+        this.artifactSearchIndex = new ArtifactSearchIndex(null);
+        this.artifactSearchIndex.index(artifact("1", "Invisibility Cloak", "An invisibility cloak is used to make the wearer invisible."));
+        this.artifactSearchIndex.index(artifact("2", "Elder Wand", "An extremely powerful wand made of elder wood."));
+        this.artifactSearchIndex.index(artifact("3", "Deluminator", "Removes the light from any light source to provide cover, like a cloak of darkness."));
+    }
+
+    @Test
+    void testSearchRanksNameMatchesFirst() {
+        // When
+        ArtifactSearchIndex.Hits hits = this.artifactSearchIndex.search("Cloak", 0, 10);
+
+        // Then
+        assertThat(hits.artifactIds()).containsExactly("1", "3");
+        assertThat(hits.total()).isEqualTo(2);
+    }
+
+    @Test
+    void testSearchPaginates() {
+        // When
+        ArtifactSearchIndex.Hits secondPage = this.artifactSearchIndex.search("cloak wand", 1, 2);
+
+        // Then
+        assertThat(secondPage.artifactIds()).hasSize(1);
+        assertThat(secondPage.total()).isEqualTo(3);
+    }
+
+    @Test
+    void testSearchPageBeyondHits() {
+        // When
+        ArtifactSearchIndex.Hits hits = this.artifactSearchIndex.search("cloak", Integer.MAX_VALUE, 100);
+
+        // Then
+        assertThat(hits.artifactIds()).isEmpty();
+        assertThat(hits.total()).isEqualTo(2);
+    }
+
+    @Test
+    void testIndexReplacesOldTerms() {
+        // When
+        this.artifactSearchIndex.index(artifact("2", "Sorting Hat", "Sorts the students into their houses."));
+
+        // Then
+        assertThat(this.artifactSearchIndex.search("wand", 0, 10).artifactIds()).isEmpty();
+        assertThat(this.artifactSearchIndex.search("hat", 0, 10).artifactIds()).containsExactly("2");
+        assertThat(this.artifactSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testRemove() {
+        // When
+        this.artifactSearchIndex.remove("1");
+
+        // Then
+        assertThat(this.artifactSearchIndex.search("cloak", 0, 10).artifactIds()).containsExactly("3");
+        assertThat(this.artifactSearchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testSearchStopsCountingAtThreshold() {
+        // Given
+        ArtifactSearchIndex index = new ArtifactSearchIndex(null, 1);
+        index.index(artifact("1", "Invisibility Cloak", "An invisibility cloak is used to make the wearer invisible."));
+        index.index(artifact("3", "Deluminator", "Removes the light from any light source to provide cover, like a cloak of darkness."));
+
+        // When
+        ArtifactSearchIndex.Hits hits = index.search("cloak", 0, 10);
+
+        // Then
+        assertThat(hits.artifactIds()).containsExactly("1", "3");
+        assertThat(hits.total()).isEqualTo(1);
+    }
+
+    @Test
+    void testPruningKeepsTheRanking() {
+        // Given one index that counts every match (so it never prunes) and one that prunes from the first full page.
+        ArtifactSearchIndex exhaustive = new ArtifactSearchIndex(null, Integer.MAX_VALUE);
+        ArtifactSearchIndex pruning = new ArtifactSearchIndex(null, 1);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 3000; i++) {
+            Artifact artifact = artifact(String.valueOf(1000 + i), words(random, 3), words(random, 15));
+            exhaustive.index(artifact);
+            pruning.index(artifact);
+        }
+
+        for (String query : new String[]{"w1", "w2 w3", "w1 w17 w250", "w5 w40 w300 w999"}) {
+            for (int page = 0; page < 3; page++) {
+                // When
+                ArtifactSearchIndex.Hits expected = exhaustive.search(query, page, 10);
+                ArtifactSearchIndex.Hits actual = pruning.search(query, page, 10);
+
+                // Then
+                assertThat(actual.artifactIds()).as("%s, page %d", query, page).isEqualTo(expected.artifactIds());
+            }
+        }
+    }
+
+    @Test
+    void testReindexingManyTimesCompacts() {
+        // When every re-index leaves a deleted doc id behind, enough of them to be compacted away.
+        for (int i = 0; i < 2000; i++) {
+            this.artifactSearchIndex.index(artifact("2", "Elder Wand " + i, "An extremely powerful wand made of elder wood."));
+        }
+
+        // Then
+        assertThat(this.artifactSearchIndex.search("wand", 0, 10).artifactIds()).containsExactly("2");
+        assertThat(this.artifactSearchIndex.search("cloak", 0, 10).artifactIds()).containsExactly("1", "3");
+        assertThat(this.artifactSearchIndex.search("1999", 0, 10).artifactIds()).containsExactly("2");
+        assertThat(this.artifactSearchIndex.search("1998", 0, 10).artifactIds()).isEmpty();
+        assertThat(this.artifactSearchIndex.size()).isEqualTo(3);
+    }
+
+    /**
+     * Words of a small vocabulary, a few of them common, see ArtifactSearchIndexBenchmark.
+     */
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append('w').append((int) Math.exp(random.nextDouble() * Math.log(1000))).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static Artifact artifact(String id, String name, String description) {
+        Artifact artifact = new Artifact();
+        artifact.setId(id);
+        artifact.setName(name);
+        artifact.setDescription(description);
+        return artifact;
+    }
+
+}
@@ -0,0 +1,137 @@
+package edu.tcu.cs.hogwartsartifactsonline.artifact.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class IdWorkerTest {
+
+    @Test
+    void testNextIdUniqueAcrossThreads() throws Exception {
+        // Given
+        IdWorker idWorker = new IdWorker(1, 1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int idsPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = executor.submit(() -> {
+                    for (int j = 0; j < idsPerThread; j++) {
+                        ids.add(idWorker.nextId());
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void testNextIdClockMovesBackwards() {
+        // Given
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+        IdWorker idWorker = new IdWorker(1, 1, now::get);
+        long first = idWorker.nextId();
+
+        // When
+        now.addAndGet(-5_000); // NTP moved the clock back five seconds.
+        long[] second = new long[1];
+        Throwable thrown = catchThrowable(() -> second[0] = idWorker.nextId());
+
+        // Then
+        assertThat(thrown).isNull();
+        assertThat(second[0]).isGreaterThan(first);
+    }
+
+    @Test
+    void testNextIdSequenceExhaustedBorrowsNextMillisecond() {
+        // Given
+        IdWorker idWorker = new IdWorker(1, 1, () -> 1_700_000_000_000L); // a frozen clock.
+        long previous = idWorker.nextId();
+
+        // When and Then
+        for (int i = 0; i < 10_000; i++) { // more than the 4096 ids of one millisecond.
+            long next = idWorker.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void testNextIdsReservesIncreasingBlock() {
+        // Given
+        IdWorker idWorker = new IdWorker(1, 1, () -> 1_700_000_000_000L);
+        long before = idWorker.nextId();
+
+        // When
+        long[] ids = idWorker.nextIds(5000); // spills over into the next millisecond.
+        long after = idWorker.nextId();
+
+        // Then
+        assertThat(ids).hasSize(5000).doesNotHaveDuplicates().isSorted();
+        assertThat(ids[0]).isGreaterThan(before);
+        assertThat(after).isGreaterThan(ids[ids.length - 1]);
+    }
+
+    @Test
+    void testConstructorWorkerIdOutOfRange() {
+        // When
+        Throwable thrown = catchThrowable(() -> new IdWorker(IdWorker.maxWorkerId + 1, 1));
+
+        // Then
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+    }
+
+
+    @Test
+    void testNextIdUsesCurrentSlot() {
+        // Given
+        AtomicInteger slot = new AtomicInteger(3 * 32 + 7);
+        IdWorker idWorker = new IdWorker(slot::get);
+
+        // When
+        long first = idWorker.nextId();
+        slot.set(2 * 32 + 1); // a new lease.
+        long second = idWorker.nextId();
+
+        // Then
+        assertThat((first >> 17) & 31).isEqualTo(3);
+        assertThat((first >> 12) & 31).isEqualTo(7);
+        assertThat((second >> 17) & 31).isEqualTo(2);
+        assertThat((second >> 12) & 31).isEqualTo(1);
+        assertThat(second).isNotEqualTo(first);
+    }
+
+    @Test
+    void testNextIdWithoutSlot() {
+        // Given
+        IdWorker idWorker = new IdWorker(() -> {
+            throw new IllegalStateException("no lease");
+        });
+
+        // When
+        Throwable thrown = catchThrowable(idWorker::nextId);
+
+        // Then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessage("no lease");
+    }
+}
@@ -259,6 +259,22 @@ class HogwartsUserControllerIntegrationTest {
                 .andExpect(jsonPath("$.data").isEmpty());
     }
 
+    @Test
+    @DisplayName("Check login after the user is deleted: cached user is evicted")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testLoginAfterDeleteUserFails() throws Exception {
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("eric", "654321")))
+                .andExpect(jsonPath("$.flag").value(true)); // eric is cached now.
+
+        this.mockMvc.perform(delete(this.baseUrl + "/users/2").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.message").value("Delete Success"));
+
+        this.mockMvc.perform(post(this.baseUrl + "/users/login").with(httpBasic("eric", "654321")))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.UNAUTHORIZED.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("username or password is incorrect."));
+    }
+
     @Test
     @DisplayName("Check deleteUser with non-existent id (DELETE)")
     void testDeleteUserErrorWithNonExistentId() throws Exception {
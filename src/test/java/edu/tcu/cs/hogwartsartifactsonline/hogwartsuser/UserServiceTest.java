@@ -9,6 +9,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -37,6 +39,9 @@ class UserServiceTest {
     @Mock
     PasswordEncoder passwordEncoder;
 
+    @Mock
+    UserPrincipalCache userPrincipalCache;
+
 
     @BeforeEach
     void setUp() {
@@ -241,4 +246,46 @@ class UserServiceTest {
                 .hasMessage("Could not find user with Id 1 :(");
         verify(this.userRepository, times(1)).findById(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdatePasswordStoresNewHash() {
+        // Given
+        HogwartsUser user = this.hogwartsUsers.get(0);
+        given(this.userRepository.updatePassword(1, "{bcrypt}new hash")).willReturn(1);
+
+        // When
+        UserDetails updated = this.userService.updatePassword(new MyUserPrincipal(user), "{bcrypt}new hash");
+
+        // Then
+        assertThat(updated.getPassword()).isEqualTo("{bcrypt}new hash");
+        assertThat(updated.getUsername()).isEqualTo("john");
+        verify(this.userRepository, times(1)).updatePassword(1, "{bcrypt}new hash");
+    }
+
+    @Test
+    void testLoadUserByUsernameSuccess() {
+        // Given
+        MyUserPrincipal principal = new MyUserPrincipal(this.hogwartsUsers.get(0));
+        given(this.userPrincipalCache.findByUsername("john")).willReturn(Optional.of(principal));
+
+        // When
+        UserDetails userDetails = this.userService.loadUserByUsername("john");
+
+        // Then
+        assertThat(userDetails).isSameAs(principal);
+        assertThat(userDetails.getAuthorities()).extracting("authority").containsExactly("ROLE_admin", "ROLE_user");
+        verify(this.userRepository, never()).findByUsername("john");
+    }
+
+    @Test
+    void testLoadUserByUsernameNotFound() {
+        // Given
+        given(this.userPrincipalCache.findByUsername("mallory")).willReturn(Optional.empty());
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.userService.loadUserByUsername("mallory"));
+
+        // Then
+        assertThat(thrown).isInstanceOf(UsernameNotFoundException.class);
+    }
+}
@@ -0,0 +1,104 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class BoundedPasswordEncoderTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    BoundedPasswordEncoder boundedPasswordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        this.boundedPasswordEncoder.shutdown();
+    }
+
+    @Test
+    void testMatchesRunsOnHashingPoolAndIsTimed() {
+        // Given
+        PasswordEncoder delegate = new PlainEncoder(null, null);
+        this.boundedPasswordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), this.meterRegistry);
+
+        // When
+        boolean matches = this.boundedPasswordEncoder.matches("123456", "123456");
+
+        // Then
+        assertThat(matches).isTrue();
+        assertThat(this.meterRegistry.get("hogwarts.password.hashing").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testHashRejectedWhenPoolAndQueueAreFull() throws Exception {
+        // Given one hash running and one waiting
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        this.boundedPasswordEncoder = new BoundedPasswordEncoder(new PlainEncoder(started, release), 1, 1, Duration.ofSeconds(5), this.meterRegistry);
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> this.boundedPasswordEncoder.matches("a", "a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> this.boundedPasswordEncoder.matches("b", "b"));
+        while (this.meterRegistry.get("hogwarts.password.hashing.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.boundedPasswordEncoder.matches("c", "c"));
+
+        // Then
+        assertThat(thrown).isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(this.meterRegistry.get("hogwarts.password.hashing.rejected").counter().count()).isEqualTo(1);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testHashTimesOut() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        this.boundedPasswordEncoder = new BoundedPasswordEncoder(new PlainEncoder(started, release), 1, 1, Duration.ofMillis(50), this.meterRegistry);
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.boundedPasswordEncoder.matches("a", "a"));
+
+        // Then
+        assertThat(thrown).isInstanceOf(PasswordHashingBusyException.class);
+        release.countDown();
+    }
+
+    /**
+     * Compares the passwords as they are, optionally blocking until released to keep the pool busy.
+     */
+    private record PlainEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (this.release != null) {
+                this.started.countDown();
+                try {
+                    this.release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2024-10-01T12:00:00Z");
+
+    @Mock
+    JwtDecoder delegate;
+
+    CachingJwtDecoder cachingJwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        this.cachingJwtDecoder = new CachingJwtDecoder(this.delegate, 100, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void testDecodeRepeatedTokenValidatedOnce() {
+        // Given
+        Jwt jwt = jwt("token-1", NOW.plusSeconds(3600));
+        given(this.delegate.decode("token-1")).willReturn(jwt);
+
+        // When
+        Jwt first = this.cachingJwtDecoder.decode("token-1");
+        Jwt second = this.cachingJwtDecoder.decode("token-1");
+
+        // Then
+        assertThat(first).isSameAs(jwt);
+        assertThat(second).isSameAs(jwt);
+        verify(this.delegate, times(1)).decode("token-1");
+        assertThat(this.cachingJwtDecoder.stats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testDecodeInvalidTokenNotCached() {
+        // Given
+        given(this.delegate.decode("forged")).willThrow(new BadJwtException("Invalid signature"));
+
+        // When
+        Throwable first = catchThrowable(() -> this.cachingJwtDecoder.decode("forged"));
+        Throwable second = catchThrowable(() -> this.cachingJwtDecoder.decode("forged"));
+
+        // Then
+        assertThat(first).isInstanceOf(BadJwtException.class);
+        assertThat(second).isInstanceOf(BadJwtException.class);
+        verify(this.delegate, times(2)).decode("forged");
+    }
+
+    @Test
+    void testDecodeExpiredTokenNotServedFromCache() {
+        // Given a token that is already past its exp (within the delegate's clock skew)
+        Jwt jwt = jwt("token-2", NOW.minusSeconds(10));
+        given(this.delegate.decode("token-2")).willReturn(jwt);
+
+        // When
+        this.cachingJwtDecoder.decode("token-2");
+        this.cachingJwtDecoder.decode("token-2");
+
+        // Then the delegate decides every time
+        verify(this.delegate, times(2)).decode("token-2");
+    }
+
+    @Test
+    void testInvalidateAllValidatesAgain() {
+        // Given
+        Jwt jwt = jwt("token-3", NOW.plusSeconds(3600));
+        given(this.delegate.decode("token-3")).willReturn(jwt);
+        this.cachingJwtDecoder.decode("token-3");
+
+        // When the key that signed it is removed
+        this.cachingJwtDecoder.invalidateAll();
+        this.cachingJwtDecoder.decode("token-3");
+
+        // Then
+        verify(this.delegate, times(2)).decode("token-3");
+    }
+
+    @Test
+    void testTokenValidatedWhileInvalidatingNotCached() {
+        // Given a key is removed while the delegate checks the token
+        Jwt jwt = jwt("token-4", NOW.plusSeconds(3600));
+        given(this.delegate.decode("token-4")).willAnswer(invocation -> {
+            this.cachingJwtDecoder.invalidateAll();
+            return jwt;
+        });
+
+        // When
+        this.cachingJwtDecoder.decode("token-4");
+        this.cachingJwtDecoder.decode("token-4");
+
+        // Then
+        verify(this.delegate, times(2)).decode("token-4");
+    }
+
+    private static Jwt jwt(String tokenValue, Instant expiresAt) {
+        return Jwt.withTokenValue(tokenValue)
+                .header("alg", "RS256")
+                .subject("john")
+                .issuedAt(expiresAt.minusSeconds(7200))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,215 @@
+package edu.tcu.cs.hogwartsartifactsonline.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class JwtKeysTest {
+
+    private static final Duration KEY_MAX_AGE = Duration.ofDays(30);
+
+    private static final Duration TOKEN_LIFETIME = Duration.ofHours(2);
+
+    private static final Instant NOW = Instant.parse("2024-10-01T12:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testKeysSurviveRestart() throws Exception {
+        // Given
+        Path jwkSetLocation = this.directory.resolve("jwks.json");
+        JwtKeys firstStart = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW));
+
+        // When
+        JwtKeys secondStart = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW.plusSeconds(60)));
+
+        // Then
+        assertThat(jwkSetLocation).exists();
+        assertThat(secondStart.signingKey()).isEqualTo(firstStart.signingKey());
+        assertThat(secondStart.jwsHeader().getKeyId()).isEqualTo(firstStart.signingKey().getKeyID());
+        assertThat(secondStart.jwsHeader().getAlgorithm().getName()).isEqualTo("ES256");
+    }
+
+    @Test
+    void testChangingAlgorithmKeepsOldKeyForVerification() throws Exception {
+        // Given
+        Path jwkSetLocation = this.directory.resolve("jwks.json");
+        JWK rsaKey = new JwtKeys(JWSAlgorithm.RS256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW)).signingKey();
+
+        // When
+        JwtKeys jwtKeys = new JwtKeys(JWSAlgorithm.HS256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW.plusSeconds(60)));
+
+        // Then
+        assertThat(jwtKeys.signingKey().getAlgorithm()).isEqualTo(JWSAlgorithm.HS256);
+        assertThat(jwtKeys.verificationKeys().getKeyByKeyId(rsaKey.getKeyID())).isNotNull();
+        assertThat(jwtKeys.verificationKeys().getKeys()).extracting(JWK::getAlgorithm).containsExactlyInAnyOrder(JWSAlgorithm.HS256, JWSAlgorithm.RS256);
+    }
+
+    @Test
+    void testOldSigningKeyRotatedAndRetiredKeysDropped() throws Exception {
+        // Given
+        Path jwkSetLocation = this.directory.resolve("jwks.json");
+        JWK oldKey = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW)).signingKey();
+
+        // When the key is past its maximum age a new one takes over, the old one still verifies
+        Instant rotatedAt = NOW.plus(KEY_MAX_AGE).plusSeconds(1);
+        JwtKeys rotated = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(rotatedAt));
+
+        // Then
+        assertThat(rotated.signingKey().getKeyID()).isNotEqualTo(oldKey.getKeyID());
+        assertThat(rotated.verificationKeys().getKeys()).hasSize(2);
+
+        // When every token of the old key has expired
+        JwtKeys later = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(rotatedAt.plus(TOKEN_LIFETIME).plusSeconds(1)));
+
+        // Then
+        assertThat(later.signingKey().getKeyID()).isEqualTo(rotated.signingKey().getKeyID());
+        assertThat(JWKSet.load(jwkSetLocation.toFile()).getKeys()).extracting(JWK::getKeyID).containsExactly(rotated.signingKey().getKeyID());
+    }
+
+    @Test
+    void testReloadPicksUpKeyOfAnotherInstance() throws Exception {
+        // Given two instances sharing the file, the second one starts after the key is past its maximum age
+        Path jwkSetLocation = this.directory.resolve("jwks.json");
+        MutableClock clock = new MutableClock(NOW);
+        JwtKeys running = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, clock);
+        JWK oldKey = running.signingKey();
+        JwtKeys starting = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW.plus(KEY_MAX_AGE).plusSeconds(1)));
+
+        // When the running instance reloads before its own key is due
+        clock.set(NOW.plusSeconds(60));
+        running.reload();
+
+        // Then it verifies the tokens of the new key, and keeps signing with the newest key of the file
+        assertThat(running.verificationKeys().getKeyByKeyId(starting.signingKey().getKeyID())).isNotNull();
+        assertThat(running.verificationKeys().getKeyByKeyId(oldKey.getKeyID())).isNotNull();
+        assertThat(running.signingKey().getKeyID()).isEqualTo(starting.signingKey().getKeyID());
+    }
+
+    @Test
+    void testReloadRotatesKeyOfRunningInstance() throws Exception {
+        // Given
+        Path jwkSetLocation = this.directory.resolve("jwks.json");
+        MutableClock clock = new MutableClock(NOW);
+        JwtKeys jwtKeys = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, clock);
+        JWK oldKey = jwtKeys.signingKey();
+
+        // When the instance keeps running past the maximum key age
+        clock.set(NOW.plus(KEY_MAX_AGE).plusSeconds(1));
+        jwtKeys.scheduledReload();
+
+        // Then
+        assertThat(jwtKeys.signingKey().getKeyID()).isNotEqualTo(oldKey.getKeyID());
+        assertThat(jwtKeys.jwsHeader().getKeyId()).isEqualTo(jwtKeys.signingKey().getKeyID());
+        assertThat(JWKSet.load(jwkSetLocation.toFile()).getKeys()).extracting(JWK::getKeyID)
+                .containsExactly(jwtKeys.signingKey().getKeyID(), oldKey.getKeyID());
+    }
+
+    @Test
+    void testUnknownKeyIdReloadsJwkSet() throws Exception {
+        // Given an instance that hasn't reloaded since another one rotated the key
+        Path jwkSetLocation = this.directory.resolve("jwks.json");
+        MutableClock clock = new MutableClock(NOW);
+        JwtKeys verifying = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, clock);
+        JWK newKey = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW.plus(KEY_MAX_AGE).plusSeconds(1))).signingKey();
+        JWKSelector selector = new JWKSelector(new JWKMatcher.Builder().keyID(newKey.getKeyID()).build());
+
+        // When a token of the new key arrives within a second of the last reload
+        List<JWK> tooSoon = verifying.verificationKeySource().get(selector, null);
+
+        // Then the file isn't read again
+        assertThat(tooSoon).isEmpty();
+
+        // When it arrives later
+        clock.set(NOW.plusSeconds(2));
+        List<JWK> matches = verifying.verificationKeySource().get(selector, null);
+
+        // Then
+        assertThat(matches).extracting(JWK::getKeyID).containsExactly(newKey.getKeyID());
+    }
+
+    @Test
+    void testKeyRemovalListenersRunWhenKeysAreRetiredOnly() throws Exception {
+        // Given
+        Path jwkSetLocation = this.directory.resolve("jwks.json");
+        MutableClock clock = new MutableClock(NOW);
+        JwtKeys jwtKeys = new JwtKeys(JWSAlgorithm.ES256, jwkSetLocation, KEY_MAX_AGE, TOKEN_LIFETIME, clock);
+        AtomicInteger removals = new AtomicInteger();
+        jwtKeys.addKeyRemovalListener(removals::incrementAndGet);
+
+        // When the key is rotated, the old one still verifies
+        Instant rotatedAt = NOW.plus(KEY_MAX_AGE).plusSeconds(1);
+        clock.set(rotatedAt);
+        jwtKeys.reload();
+
+        // Then
+        assertThat(removals).hasValue(0);
+
+        // When every token of the old key has expired
+        clock.set(rotatedAt.plus(TOKEN_LIFETIME).plusSeconds(1));
+        jwtKeys.reload();
+
+        // Then
+        assertThat(removals).hasValue(1);
+    }
+
+    @Test
+    void testUnsupportedAlgorithm() {
+        // When
+        Throwable thrown = catchThrowable(() -> new JwtKeys(JWSAlgorithm.PS512, this.directory.resolve("jwks.json"), KEY_MAX_AGE, TOKEN_LIFETIME, at(NOW)));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported JWT signing algorithm PS512, use ES256, RS256 or HS256.");
+    }
+
+    private static Clock at(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return this.instant;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import edu.tcu.cs.hogwartsartifactsonline.artifact.ArtifactService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigurationTest {
+
+    @Test
+    void testEvictionWaitsForCommit() {
+        // Given
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setCacheNames(List.of(ArtifactService.ARTIFACT_CACHE, "users"));
+        cacheProperties.getCaffeine().setSpec("maximumSize=100");
+        CacheManager cacheManager = new CacheConfiguration().cacheManager(cacheProperties, "maximumSize=100,expireAfterWrite=30s");
+        Cache artifacts = cacheManager.getCache(ArtifactService.ARTIFACT_CACHE);
+        artifacts.put("1250808601744904191", "Deluminator");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When evicted inside a transaction
+            artifacts.evict("1250808601744904191");
+
+            // Then the entry stays until the transaction commits
+            assertThat(artifacts.get("1250808601744904191")).isNotNull();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(artifacts.get("1250808601744904191")).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package edu.tcu.cs.hogwartsartifactsonline.system;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability // Spring Boot turns the Prometheus registry off in tests unless asked.
+@DisplayName("Integration tests for the metrics endpoints")
+@Tag("integration")
+@ActiveProfiles(value = "dev")
+class MetricsIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Value("${api.endpoint.base-url}")
+    String baseUrl;
+
+    @Test
+    @DisplayName("Check prometheus scrape has request, service, repository and pool metrics")
+    void testPrometheusScrapeSuccess() throws Exception {
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        this.mockMvc.perform(get("/actuator/prometheus").with(httpBasic("john", "123456")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"" + this.baseUrl + "/artifacts/{artifactId}\"")))
+                .andExpect(content().string(containsString("hogwarts_service_seconds_bucket")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hibernate_sessions_open_total")));
+    }
+
+    @Test
+    @DisplayName("Check prometheus scrape without credentials")
+    void testPrometheusScrapeNoAccessAsAnonymous() throws Exception {
+        this.mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Check prometheus scrape as a non-admin user")
+    void testPrometheusScrapeNoAccessAsRoleUser() throws Exception {
+        this.mockMvc.perform(get("/actuator/prometheus").with(httpBasic("eric", "654321")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Check health is public")
+    void testHealthSuccess() throws Exception {
+        this.mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+}
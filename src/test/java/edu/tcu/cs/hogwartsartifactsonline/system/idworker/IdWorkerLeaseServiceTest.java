@@ -0,0 +1,222 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.idworker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdWorkerLeaseServiceTest {
+
+    static final Duration LEASE_DURATION = Duration.ofSeconds(60);
+
+    @Mock
+    IdWorkerLeaseRepository idWorkerLeaseRepository;
+
+    MutableClock clock;
+
+    IdWorkerLeaseService idWorkerLeaseService;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = new MutableClock(Instant.parse("2024-10-01T12:00:00Z"));
+        this.idWorkerLeaseService = new IdWorkerLeaseService(this.idWorkerLeaseRepository, LEASE_DURATION, this.clock);
+    }
+
+    @Test
+    void testClaimTakesOverExpiredLease() {
+        // Given
+        IdWorkerLease expiredLease = new IdWorkerLease(5, "dead-instance", this.clock.instant().minusSeconds(1));
+        given(this.idWorkerLeaseRepository.findByExpiresAtBeforeOrderBySlotAsc(this.clock.instant())).willReturn(List.of(expiredLease));
+        given(this.idWorkerLeaseRepository.takeOver(eq(5), anyString(), eq(this.clock.instant().plus(LEASE_DURATION)), eq(this.clock.instant()))).willReturn(1);
+
+        // When
+        int slot = this.idWorkerLeaseService.claim();
+
+        // Then
+        assertThat(slot).isEqualTo(5);
+        assertThat(this.idWorkerLeaseService.currentSlot()).isEqualTo(5);
+        verify(this.idWorkerLeaseRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testClaimInsertsFirstFreeSlot() {
+        // Given
+        given(this.idWorkerLeaseRepository.findAllSlots()).willReturn(List.of(0, 1));
+        given(this.idWorkerLeaseRepository.saveAndFlush(any())).willAnswer(invocation -> {
+            IdWorkerLease lease = invocation.getArgument(0);
+            if (lease.getSlot() == 2) {
+                throw new DataIntegrityViolationException("another instance inserted slot 2 first");
+            }
+            return lease;
+        });
+
+        // When
+        int slot = this.idWorkerLeaseService.claim();
+
+        // Then
+        assertThat(slot).isEqualTo(3);
+        verify(this.idWorkerLeaseRepository, times(2)).saveAndFlush(any());
+    }
+
+    @Test
+    void testLeaseRunsOutWithoutRenewal() {
+        // Given
+        this.idWorkerLeaseService.claim();
+
+        // When
+        this.clock.advance(LEASE_DURATION.minusSeconds(4)); // the clock skew allowance is 5s.
+        Throwable thrown = catchThrowable(() -> this.idWorkerLeaseService.currentSlot());
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("This instance holds no valid id worker lease, no ids are generated until it is renewed.");
+    }
+
+    @Test
+    void testRenewExtendsLease() {
+        // Given
+        this.idWorkerLeaseService.claim();
+        this.clock.advance(Duration.ofSeconds(50));
+        given(this.idWorkerLeaseRepository.renew(eq(0), anyString(), eq(this.clock.instant().plus(LEASE_DURATION)))).willReturn(1);
+
+        // When
+        this.idWorkerLeaseService.renew();
+        this.clock.advance(Duration.ofSeconds(50));
+
+        // Then
+        assertThat(this.idWorkerLeaseService.currentSlot()).isEqualTo(0);
+    }
+
+    @Test
+    void testLostLeaseLeasesAnotherSlot() {
+        // Given
+        given(this.idWorkerLeaseRepository.findAllSlots()).willReturn(List.of(), List.of(0));
+        this.idWorkerLeaseService.claim();
+        this.clock.advance(Duration.ofSeconds(70)); // e.g., a long GC pause, another instance took slot 0 over meanwhile.
+        given(this.idWorkerLeaseRepository.renew(eq(0), anyString(), any())).willReturn(0);
+
+        // When
+        this.idWorkerLeaseService.renew();
+
+        // Then
+        assertThat(this.idWorkerLeaseService.currentSlot()).isEqualTo(1);
+    }
+
+    @Test
+    void testPinLeasesConfiguredSlot() {
+        // Given
+        given(this.idWorkerLeaseRepository.existsById(37)).willReturn(false);
+        this.idWorkerLeaseService.pin(37);
+        this.clock.advance(Duration.ofSeconds(50));
+        given(this.idWorkerLeaseRepository.renew(eq(37), anyString(), eq(this.clock.instant().plus(LEASE_DURATION)))).willReturn(1);
+
+        // When
+        this.idWorkerLeaseService.renew();
+        this.clock.advance(Duration.ofSeconds(50));
+
+        // Then
+        assertThat(this.idWorkerLeaseService.currentSlot()).isEqualTo(37);
+        verify(this.idWorkerLeaseRepository).saveAndFlush(argThat(lease -> lease.getSlot() == 37
+                && lease.getExpiresAt().equals(Instant.parse("2024-10-01T12:00:00Z").plus(LEASE_DURATION))));
+        verify(this.idWorkerLeaseRepository, never()).findAllSlots();
+    }
+
+    @Test
+    void testPinUsesOwnerOfThisInstance() {
+        // Given two instances configured with the same pair.
+        IdWorkerLeaseService otherInstance = new IdWorkerLeaseService(this.idWorkerLeaseRepository, LEASE_DURATION, this.clock);
+        given(this.idWorkerLeaseRepository.existsById(37)).willReturn(false);
+        this.idWorkerLeaseService.pin(37);
+        this.idWorkerLeaseService.release();
+        otherInstance.pin(37);
+        otherInstance.release();
+
+        // When
+        ArgumentCaptor<String> owners = ArgumentCaptor.forClass(String.class);
+        verify(this.idWorkerLeaseRepository, times(2)).release(eq(37), owners.capture());
+
+        // Then
+        assertThat(owners.getAllValues().get(0)).isNotEqualTo(owners.getAllValues().get(1));
+    }
+
+    @Test
+    void testPinFailsWhenSlotLeasedByAnotherInstance() {
+        // Given
+        given(this.idWorkerLeaseRepository.existsById(37)).willReturn(true);
+        given(this.idWorkerLeaseRepository.takeOver(eq(37), anyString(), eq(this.clock.instant().plus(LEASE_DURATION)), eq(this.clock.instant()))).willReturn(0);
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.idWorkerLeaseService.pin(37));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("The configured id worker slot 37 (datacenter id 1, worker id 5) is leased by another instance.");
+        assertThat(catchThrowable(() -> this.idWorkerLeaseService.currentSlot())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testPinnedInstanceDoesNotLeaseAnotherSlotWhenItsLeaseIsLost() {
+        // Given
+        given(this.idWorkerLeaseRepository.existsById(37)).willReturn(false, true);
+        this.idWorkerLeaseService.pin(37);
+        this.clock.advance(Duration.ofSeconds(70)); // another instance configured with the same pair took slot 37 over meanwhile.
+        given(this.idWorkerLeaseRepository.renew(eq(37), anyString(), any())).willReturn(0);
+        given(this.idWorkerLeaseRepository.takeOver(eq(37), anyString(), any(), any())).willReturn(0);
+
+        // When
+        this.idWorkerLeaseService.renew();
+
+        // Then
+        assertThat(catchThrowable(() -> this.idWorkerLeaseService.currentSlot())).isInstanceOf(IllegalStateException.class);
+        verify(this.idWorkerLeaseRepository, never()).findAllSlots();
+    }
+
+    static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            this.now = this.now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return this.now;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingDataSourceTest {
+
+    @Mock
+    DataSource targetDataSource;
+
+    @Test
+    void testSecondConnectionWaitsUntilFirstIsClosed() throws Exception {
+        // Given
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        given(this.targetDataSource.getConnection()).willReturn(first, second);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(this.targetDataSource, 1, Duration.ofMillis(50));
+        Connection held = dataSource.getConnection();
+
+        // When
+        Throwable thrown = catchThrowable(dataSource::getConnection);
+        held.close();
+        held.close(); // closing twice must not release a second permit.
+        Connection next = dataSource.getConnection();
+
+        // Then
+        assertThat(thrown).isInstanceOf(SQLTransientConnectionException.class);
+        verify(first, times(1)).close();
+        assertThat(catchThrowable(dataSource::getConnection)).isInstanceOf(SQLTransientConnectionException.class);
+        next.close();
+        verify(second, times(1)).close();
+    }
+
+    @Test
+    void testPermitReleasedWhenTargetFails() throws Exception {
+        // Given
+        Connection connection = mock(Connection.class);
+        given(this.targetDataSource.getConnection()).willThrow(new SQLException("Database is down")).willReturn(connection);
+        ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(this.targetDataSource, 1, Duration.ofMillis(50));
+
+        // When
+        Throwable thrown = catchThrowable(dataSource::getConnection);
+        Connection next = dataSource.getConnection();
+
+        // Then
+        assertThat(thrown).hasMessage("Database is down");
+        assertThat(next).isNotNull();
+    }
+}
@@ -0,0 +1,61 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class QueryLoggerTest {
+
+    @Test
+    void testSlowStatementLoggedWithBindValueTypes(CapturedOutput output) throws Exception {
+        // Given
+        QueryLogger queryLogger = new QueryLogger(0, Duration.ofMillis(100), 16);
+
+        // When
+        queryLogger.executed("select * from artifact where name = ? and owner_id = ?", new Object[]{null, "Deluminator", 1}, 2, TimeUnit.MILLISECONDS.toNanos(150));
+        queryLogger.shutdown(); // waits for the buffer to be written.
+
+        // Then
+        assertThat(output).contains("Slow statement (150.000 ms): select * from artifact where name = ? and owner_id = ? [String(11), 1]");
+    }
+
+    @Test
+    void testSlowStatementDoesNotLogPasswordHash(CapturedOutput output) throws Exception {
+        // Given
+        QueryLogger queryLogger = new QueryLogger(0, Duration.ofMillis(100), 16);
+        String passwordHash = "{bcrypt}$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW";
+
+        // When
+        queryLogger.executed("update hogwarts_user set password = ? where id = ?", new Object[]{null, passwordHash, 2}, 2, TimeUnit.MILLISECONDS.toNanos(150));
+        queryLogger.shutdown();
+
+        // Then
+        assertThat(output).contains("update hogwarts_user set password = ? where id = ? [String(" + passwordHash.length() + "), 2]");
+        assertThat(output).doesNotContain("$2a$12$");
+    }
+
+    @Test
+    void testFastStatementLoggedOnlyIfSampled(CapturedOutput output) throws Exception {
+        // Given
+        QueryLogger notSampling = new QueryLogger(0, Duration.ofMillis(100), 16);
+        QueryLogger samplingAll = new QueryLogger(1, Duration.ofMillis(100), 16);
+
+        // When
+        notSampling.executed("select * from wizard", null, 0, TimeUnit.MILLISECONDS.toNanos(1));
+        samplingAll.executed("select * from hogwarts_user where id = ?", new Object[]{null, 1}, 1, TimeUnit.MILLISECONDS.toNanos(2));
+        notSampling.shutdown();
+        samplingAll.shutdown();
+
+        // Then
+        assertThat(output).doesNotContain("select * from wizard");
+        assertThat(output).contains("2.000 ms: select * from hogwarts_user where id = ?");
+        assertThat(output).doesNotContain("[1]"); // bind values are only logged for slow statements.
+    }
+}
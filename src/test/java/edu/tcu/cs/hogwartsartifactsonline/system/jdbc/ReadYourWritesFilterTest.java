@@ -0,0 +1,74 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @Test
+    void testWriteSetsCookieAndUsesPrimary() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/artifacts/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean primaryRequired = run(request, response);
+
+        // Then
+        assertThat(primaryRequired).isTrue();
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertThat(cookie).isNotNull();
+        assertThat(Long.parseLong(cookie.getValue())).isGreaterThan(System.currentTimeMillis());
+        assertThat(cookie.getMaxAge()).isEqualTo(5);
+        assertThat(ReadYourWrites.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    void testReadAfterRecentWriteUsesPrimary() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/artifacts");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, String.valueOf(System.currentTimeMillis() + 5000)));
+
+        assertThat(run(request, new MockHttpServletResponse())).isTrue();
+    }
+
+    @Test
+    void testReadAfterExpiredWriteUsesReplica() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/artifacts");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, String.valueOf(System.currentTimeMillis() - 1)));
+
+        assertThat(run(request, new MockHttpServletResponse())).isFalse();
+    }
+
+    @Test
+    void testReadWithoutCookieUsesReplica() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(run(new MockHttpServletRequest("GET", "/api/v1/artifacts"), response)).isFalse();
+        assertThat(response.getCookie(ReadYourWritesFilter.COOKIE_NAME)).isNull();
+    }
+
+    private boolean run(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicBoolean primaryRequired = new AtomicBoolean();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                primaryRequired.set(ReadYourWrites.isPrimaryRequired());
+            }
+        });
+        this.filter.doFilter(request, response, chain);
+        return primaryRequired.get();
+    }
+}
@@ -0,0 +1,117 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A primary and two replicas, each its own H2 database whose node table holds the database's name.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    List<JdbcDataSource> databases = new ArrayList<>();
+
+    JdbcTemplate jdbcTemplate;
+
+    TransactionTemplate readWrite;
+
+    TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource primary = database("primary");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, List.of(database("replica-1"), database("replica-2"))));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.databases.forEach(database -> new JdbcTemplate(database).execute("drop table node"));
+    }
+
+    @Test
+    void testReadWriteTransactionUsesPrimary() {
+        assertThat(this.readWrite.execute(status -> node())).isEqualTo("primary");
+    }
+
+    @Test
+    void testNoTransactionUsesPrimary() {
+        assertThat(node()).isEqualTo("primary");
+    }
+
+    @Test
+    void testReadOnlyTransactionsAlternateBetweenReplicas() {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(this.readOnly.execute(status -> node()));
+        }
+
+        assertThat(nodes).containsExactly("replica-1", "replica-2", "replica-1", "replica-2");
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesPrimaryWhenReadingOwnWrites() {
+        boolean previous = ReadYourWrites.requirePrimary();
+        try {
+            assertThat(this.readOnly.execute(status -> node())).isEqualTo("primary");
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+
+        assertThat(ReadYourWrites.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    void testFromPrimaryInsideReadOnlyTransaction() {
+        assertThat(this.readOnly.execute(status -> ReadYourWrites.fromPrimary(this::node))).isEqualTo("primary");
+        assertThat(ReadYourWrites.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    void testPropagatedTaskUsesPrimary() throws Exception {
+        List<String> nodes = new ArrayList<>();
+        Runnable task;
+        boolean previous = ReadYourWrites.requirePrimary();
+        try {
+            task = ReadYourWrites.propagate(() -> nodes.add(this.readOnly.execute(status -> node())));
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+
+        assertThat(nodes).containsExactly("primary");
+    }
+
+    private String node() {
+        return this.jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private JdbcDataSource database(String name) {
+        JdbcDataSource database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        this.databases.add(database);
+        return database;
+    }
+}
@@ -0,0 +1,70 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaSeederTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:seeder-primary;DB_CLOSE_DELAY=-1";
+
+    static final String COPY_URL = "jdbc:h2:mem:seeder-copy;DB_CLOSE_DELAY=-1";
+
+    static final String UNTOUCHED_URL = "jdbc:h2:mem:seeder-untouched;DB_CLOSE_DELAY=-1";
+
+    @AfterEach
+    void tearDown() {
+        List.of(PRIMARY_URL, COPY_URL, UNTOUCHED_URL).forEach(url -> template(url).execute("drop all objects"));
+    }
+
+    @Test
+    void testSeedCopiesThePrimaryIntoFlaggedReplicas() {
+        // Given
+        JdbcTemplate primary = template(PRIMARY_URL);
+        primary.execute("create table wizard (id int primary key, name varchar(50))");
+        primary.update("insert into wizard values (1, 'Albus Dumbledore'), (2, 'Harry Potter')");
+        ReplicaProperties properties = new ReplicaProperties(List.of(
+                new ReplicaProperties.Replica(COPY_URL, "sa", "", null, true),
+                new ReplicaProperties.Replica(UNTOUCHED_URL, "sa", "", null, false)), null);
+
+        // When
+        new ReplicaSeeder(dataSource(PRIMARY_URL), properties).seed();
+
+        // Then
+        assertThat(template(COPY_URL).queryForList("select name from wizard order by id", String.class))
+                .containsExactly("Albus Dumbledore", "Harry Potter");
+        assertThat(template(UNTOUCHED_URL).queryForObject(
+                "select count(*) from information_schema.tables where table_name = 'WIZARD'", Integer.class)).isZero();
+    }
+
+    @Test
+    void testSeedReplacesWhatTheReplicaHad() {
+        // Given
+        template(PRIMARY_URL).execute("create table wizard (id int primary key, name varchar(50))");
+        template(COPY_URL).execute("create table wizard (id int primary key, name varchar(50))");
+        template(COPY_URL).update("insert into wizard values (3, 'Neville Longbottom')");
+        ReplicaProperties properties = new ReplicaProperties(List.of(new ReplicaProperties.Replica(COPY_URL, "sa", "", null, true)), null);
+
+        // When
+        new ReplicaSeeder(dataSource(PRIMARY_URL), properties).seed();
+
+        // Then
+        assertThat(template(COPY_URL).queryForObject("select count(*) from wizard", Integer.class)).isZero();
+    }
+
+    private static JdbcTemplate template(String url) {
+        return new JdbcTemplate(dataSource(url));
+    }
+
+    private static JdbcDataSource dataSource(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
@@ -0,0 +1,105 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlAccountingDataSourceTest {
+
+    SqlAccountingDataSource dataSource;
+
+    SqlStatistics statistics;
+
+    SqlStatistics previous;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-accounting;DB_CLOSE_DELAY=-1");
+        this.dataSource = new SqlAccountingDataSource(h2, null);
+        this.statistics = new SqlStatistics();
+        this.previous = SqlStatistics.bind(this.statistics);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SqlStatistics.restore(this.previous);
+        try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists item");
+        }
+    }
+
+    @Test
+    void testStatementsAndRowsCounted() throws Exception {
+        // Given
+        try (Connection connection = this.dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table item (id int primary key)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("insert into item values (?)")) {
+                for (int i = 0; i < 3; i++) {
+                    insert.setInt(1, i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+
+            // When
+            try (PreparedStatement select = connection.prepareStatement("select id from item where id > ?")) {
+                select.setInt(1, 0);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        assertThat(resultSet.getInt(1)).isPositive();
+                    }
+                }
+            }
+        }
+
+        // Then
+        assertThat(this.statistics.getStatements()).isEqualTo(3); // create, one batch of inserts, select.
+        assertThat(this.statistics.getRows()).isEqualTo(2);
+        assertThat(this.statistics.getJdbcTime()).isPositive();
+    }
+
+    @Test
+    void testWorkOutsideRequestNotCounted() throws Exception {
+        // Given
+        SqlStatistics.restore(null);
+
+        // When
+        try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table item (id int primary key)");
+        }
+
+        // Then
+        assertThat(this.statistics.getStatements()).isZero();
+    }
+
+    @Test
+    void testPropagatedTaskCountsTowardsSubmitter() throws Exception {
+        // Given
+        Runnable task = SqlStatistics.propagate(() -> {
+            try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("create table item (id int primary key)");
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+
+        // When
+        Thread thread = new Thread(task);
+        thread.start();
+        thread.join();
+
+        // Then
+        assertThat(this.statistics.getStatements()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,46 @@
+package edu.tcu.cs.hogwartsartifactsonline.system.jdbc;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc assertions on the SQL a request ran (see SqlAccountingFilter), e.g.,
+ * mockMvc.perform(get(...)).andExpect(sql().statements(2)) pins a route's query count so an N+1 query fails the test.
+ */
+public final class SqlResultMatchers {
+
+    private SqlResultMatchers() {
+    }
+
+    public static SqlResultMatchers sql() {
+        return new SqlResultMatchers();
+    }
+
+    public ResultMatcher statements(long expected) {
+        return result -> assertThat(statistics(result).getStatements()).as("statements executed by the request").isEqualTo(expected);
+    }
+
+    public ResultMatcher statementsAtMost(long maximum) {
+        return result -> assertThat(statistics(result).getStatements()).as("statements executed by the request").isLessThanOrEqualTo(maximum);
+    }
+
+    public ResultMatcher rows(long expected) {
+        return result -> assertThat(statistics(result).getRows()).as("rows fetched by the request").isEqualTo(expected);
+    }
+
+    /**
+     * The request's connections were all back in the pool before its response body was serialized.
+     */
+    public ResultMatcher connectionReleasedBeforeSerialization() {
+        return result -> assertThat(statistics(result).isConnectionHeldDuringSerialization())
+                .as("a connection was held while the response was serialized").isFalse();
+    }
+
+    private static SqlStatistics statistics(MvcResult result) {
+        Object statistics = result.getRequest().getAttribute(SqlStatistics.REQUEST_ATTRIBUTE);
+        assertThat(statistics).as("SQL statistics of the request, is hogwarts.sql.accounting on?").isInstanceOf(SqlStatistics.class);
+        return (SqlStatistics) statistics;
+    }
+}
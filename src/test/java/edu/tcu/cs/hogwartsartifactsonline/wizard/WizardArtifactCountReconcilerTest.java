@@ -0,0 +1,47 @@
+package edu.tcu.cs.hogwartsartifactsonline.wizard;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayName("Integration tests for WizardArtifactCountReconciler")
+@Tag("integration")
+@ActiveProfiles(value = "dev")
+@DirtiesContext // the rows are changed behind the back of the other tests' context.
+class WizardArtifactCountReconcilerTest {
+
+    @Autowired
+    WizardArtifactCountReconciler wizardArtifactCountReconciler;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Check reconcile fixes only the drifted counts")
+    void testReconcileFixesDriftedCounts() {
+        // Given the artifact table was changed behind the application's back
+        this.jdbcTemplate.update("update wizard set number_of_artifacts = 99 where id = 1");
+        this.jdbcTemplate.update("update artifact set owner_id = null where owner_id = 3");
+        Long untouchedVersion = this.jdbcTemplate.queryForObject("select version from wizard where id = 2", Long.class);
+
+        // When
+        this.wizardArtifactCountReconciler.reconcile();
+
+        // Then
+        assertThat(numberOfArtifacts(1)).isEqualTo(2);
+        assertThat(numberOfArtifacts(3)).isEqualTo(0);
+        assertThat(this.jdbcTemplate.queryForObject("select version from wizard where id = 2", Long.class)).isEqualTo(untouchedVersion);
+    }
+
+    private Integer numberOfArtifacts(int wizardId) {
+        return this.jdbcTemplate.queryForObject("select number_of_artifacts from wizard where id = ?", Integer.class, wizardId);
+    }
+}
@@ -20,10 +20,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.List;
+
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -237,4 +241,126 @@ class WizardControllerIntegrationTest {
                 .andExpect(jsonPath("$.data").isEmpty());
     }
 
+    @Test
+    @DisplayName("Check assignArtifact updates both wizards' number of artifacts (PUT)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testAssignArtifactUpdatesNumberOfArtifacts() throws Exception {
+        // Albus Dumbledore (1) owns the Deluminator and gives it to Neville Longbottom (3).
+        this.mockMvc.perform(put(this.baseUrl + "/wizards/3/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/1").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(1));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/3").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(2));
+    }
+
+    @Test
+    @DisplayName("Check deleteWizard keeps the wizard's artifacts without an owner (DELETE)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testDeleteWizardUnassignsArtifacts() throws Exception {
+        // Albus Dumbledore (1) owns the Deluminator and the Elder Wand.
+        this.mockMvc.perform(delete(this.baseUrl + "/wizards/1").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904191").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.owner").isEmpty());
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904193").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.owner").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Check assignArtifacts moves many artifacts and updates the counts (PUT)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testAssignArtifactsSuccess() throws Exception {
+        // Harry Potter's (2) two artifacts, Albus Dumbledore's Deluminator and the unowned Resurrection Stone go to Neville Longbottom (3).
+        List<String> artifactIds = List.of("1250808601744904192", "1250808601744904194", "1250808601744904191", "1250808601744904196");
+
+        this.mockMvc.perform(put(this.baseUrl + "/wizards/3/artifacts").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(artifactIds)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Artifact Assignment Success"))
+                .andExpect(jsonPath("$.data").value(4));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/1").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(1));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/2").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(0));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/3").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(5));
+        this.mockMvc.perform(get(this.baseUrl + "/artifacts/1250808601744904196").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.owner.name").value("Neville Longbottom"));
+    }
+
+    @Test
+    @DisplayName("Check assignArtifacts with a non-existent artifact id moves nothing (PUT)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testAssignArtifactsErrorWithNonExistentArtifactId() throws Exception {
+        List<String> artifactIds = List.of("1250808601744904192", "1250808601744904199");
+
+        this.mockMvc.perform(put(this.baseUrl + "/wizards/3/artifacts").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(artifactIds)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.data['1'].id").value("Could not find artifact with Id 1250808601744904199 :("));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/3").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(1));
+    }
+
+    @Test
+    @DisplayName("Check transferArtifacts moves all the artifacts of a wizard (PUT)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testTransferArtifactsSuccess() throws Exception {
+        // Harry Potter (2) gives everything he has to Neville Longbottom (3).
+        this.mockMvc.perform(put(this.baseUrl + "/wizards/3/artifacts/from/2").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Artifact Transfer Success"))
+                .andExpect(jsonPath("$.data").value(2));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/2").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(0));
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/3").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.data.numberOfArtifacts").value(3));
+    }
+
+    @Test
+    @DisplayName("Check transferArtifacts with non-existent wizard id (PUT)")
+    void testTransferArtifactsErrorWithNonExistentWizardId() throws Exception {
+        this.mockMvc.perform(put(this.baseUrl + "/wizards/5/artifacts/from/2").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND.getHttpStatusCodeValue()))
+                .andExpect(jsonPath("$.message").value("Could not find wizard with Id 5 :("));
+    }
+
+    @Test
+    @DisplayName("Check findAllWizards answers 304 until a wizard changes (GET)")
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.BEFORE_METHOD)
+    void testFindAllWizardsNotModified() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get(this.baseUrl + "/wizards").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String eTag = mvcResult.getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.mockMvc.perform(get(this.baseUrl + "/wizards").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(status().isNotModified());
+
+        Wizard a = new Wizard();
+        a.setName("Updated wizard name");
+        this.mockMvc.perform(put(this.baseUrl + "/wizards/1").contentType(MediaType.APPLICATION_JSON).content(this.objectMapper.writeValueAsString(a)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(jsonPath("$.flag").value(true));
+
+        this.mockMvc.perform(get(this.baseUrl + "/wizards").header(HttpHeaders.IF_NONE_MATCH, eTag).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data", Matchers.hasSize(3)));
+    }
+
+    @Test
+    @DisplayName("Check findWizardById answers 304 when the client's copy is current (GET)")
+    void testFindWizardByIdNotModified() throws Exception {
+        MvcResult mvcResult = this.mockMvc.perform(get(this.baseUrl + "/wizards/2").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+
+        this.mockMvc.perform(get(this.baseUrl + "/wizards/2").header(HttpHeaders.IF_NONE_MATCH, mvcResult.getResponse().getHeader(HttpHeaders.ETAG)).accept(MediaType.APPLICATION_JSON).header(HttpHeaders.AUTHORIZATION, this.token))
+                .andExpect(status().isNotModified());
+    }
+
 }
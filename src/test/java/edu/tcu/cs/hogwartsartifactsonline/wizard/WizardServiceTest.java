@@ -2,7 +2,7 @@ package edu.tcu.cs.hogwartsartifactsonline.wizard;
 
 import edu.tcu.cs.hogwartsartifactsonline.artifact.Artifact;
 import edu.tcu.cs.hogwartsartifactsonline.artifact.ArtifactRepository;
-import edu.tcu.cs.hogwartsartifactsonline.artifact.utils.IdWorker;
+import edu.tcu.cs.hogwartsartifactsonline.system.exception.BatchValidationException;
 import edu.tcu.cs.hogwartsartifactsonline.system.exception.ObjectNotFoundException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,9 +36,6 @@ class WizardServiceTest {
 
     List<Artifact> artifacts;
 
-    @Mock
-    IdWorker idWorker;
-
     // Since WizardService depends on ArtifactRepository we need to mock this behavior
     @Mock
     ArtifactRepository artifactRepository;
@@ -180,10 +177,12 @@ class WizardServiceTest {
         Wizard newWizard = new Wizard();
         newWizard.setName("Hermione Granger");
 
-        // Describe behavior of the mock object (newWizard)
-        given(idWorker.nextId()).willReturn(4L);
-        // the same that is being saved will be returned.
-        given(wizardRepository.save(newWizard)).willReturn(newWizard);
+        // the same that is being saved will be returned, with the id the sequence would have assigned.
+        given(wizardRepository.save(newWizard)).willAnswer(invocation -> {
+            Wizard wizard = invocation.getArgument(0);
+            wizard.setId(4);
+            return wizard;
+        });
 
         // When
         Wizard savedWizard = wizardService.save(newWizard);
@@ -241,6 +240,7 @@ class WizardServiceTest {
 
         // Then
         verify(wizardRepository, times(1)).findById(9);
+        verify(artifactRepository, never()).unassignOwner(any());
 
     }
 
@@ -256,6 +256,7 @@ class WizardServiceTest {
         wizardService.delete(wizard.getId());
 
         // Then
+        verify(artifactRepository, times(1)).unassignOwner(wizard);
         verify(wizardRepository, times(1)).deleteById(wizard.getId());
 
     }
@@ -311,10 +312,11 @@ class WizardServiceTest {
         // Then
         /*
          * before the assignArtifact the Invisiblity cloak belongs to Harry Potter and Neville doesn't have anything in his artifactList
-         * after assignArtifact the invisiblity cloak belongs to Neville and he should have one item in his artifactList.
+         * after assignArtifact the invisiblity cloak belongs to Neville and his number of artifacts goes up by one while Harry's goes down by one.
          */
         assertThat(artifact.getOwner().getId()).isEqualTo(w3.getId());
-        assertThat(w3.getArtifacts()).contains(artifact);
+        verify(this.wizardRepository, times(1)).adjustNumberOfArtifacts(w2.getId(), -1);
+        verify(this.wizardRepository, times(1)).adjustNumberOfArtifacts(w3.getId(), 1);
     }
 
     @Test
@@ -399,4 +401,94 @@ class WizardServiceTest {
                 .hasMessage(String.format("Could not find artifact with Id %s :(", artifact.getId()));
     }
 
+    @Test
+    void testAssignArtifactsSuccess() {
+        // Given
+        // two of Harry Potter's artifacts and one of Neville Longbottom's go to Albus Dumbledore.
+        List<String> artifactIds = List.of("1250808601744904192", "1250808601744904194", "1250808601744904195");
+        Wizard w1 = this.wizards.get(0);
+        given(this.wizardRepository.existsById(1)).willReturn(true);
+        given(this.artifactRepository.findIdsByIdIn(artifactIds)).willReturn(artifactIds);
+        given(this.wizardRepository.getReferenceById(1)).willReturn(w1);
+        given(this.artifactRepository.countByOwnerForIds(artifactIds)).willReturn(List.of(ownerCount(2, 2L), ownerCount(3, 1L)));
+        given(this.artifactRepository.assignOwner(w1, artifactIds)).willReturn(3);
+
+        // When
+        int moved = this.wizardService.assignArtifacts(1, artifactIds);
+
+        // Then
+        assertThat(moved).isEqualTo(3);
+        verify(this.wizardRepository, times(1)).adjustNumberOfArtifacts(2, -2);
+        verify(this.wizardRepository, times(1)).adjustNumberOfArtifacts(3, -1);
+        verify(this.wizardRepository, times(1)).adjustNumberOfArtifacts(1, 3);
+        verify(this.artifactRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void testAssignArtifactsErrorWithNonExistentArtifactId() {
+        // Given
+        List<String> artifactIds = List.of("1250808601744904192", "1250808601744904199");
+        given(this.wizardRepository.existsById(1)).willReturn(true);
+        given(this.artifactRepository.findIdsByIdIn(artifactIds)).willReturn(List.of("1250808601744904192"));
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.wizardService.assignArtifacts(1, artifactIds));
+
+        // Then
+        assertThat(thrown).isInstanceOf(BatchValidationException.class);
+        assertThat(((BatchValidationException) thrown).getErrors()).containsOnlyKeys(1);
+        verify(this.artifactRepository, never()).assignOwner(any(), any());
+        verify(this.wizardRepository, never()).adjustNumberOfArtifacts(anyInt(), anyInt());
+    }
+
+    @Test
+    void testTransferArtifactsSuccess() {
+        // Given
+        Wizard w2 = this.wizards.get(1);
+        Wizard w3 = this.wizards.get(2);
+        given(this.wizardRepository.existsById(2)).willReturn(true);
+        given(this.wizardRepository.existsById(3)).willReturn(true);
+        given(this.wizardRepository.getReferenceById(2)).willReturn(w2);
+        given(this.wizardRepository.getReferenceById(3)).willReturn(w3);
+        given(this.artifactRepository.transferOwner(w2, w3)).willReturn(2);
+
+        // When
+        int moved = this.wizardService.transferArtifacts(2, 3);
+
+        // Then
+        assertThat(moved).isEqualTo(2);
+        verify(this.wizardRepository, times(1)).adjustNumberOfArtifacts(2, -2);
+        verify(this.wizardRepository, times(1)).adjustNumberOfArtifacts(3, 2);
+    }
+
+    @Test
+    void testTransferArtifactsErrorWithNonExistentWizardId() {
+        // Given
+        given(this.wizardRepository.existsById(2)).willReturn(true);
+        given(this.wizardRepository.existsById(5)).willReturn(false);
+
+        // When
+        Throwable thrown = catchThrowable(() -> this.wizardService.transferArtifacts(2, 5));
+
+        // Then
+        assertThat(thrown)
+                .isInstanceOf(ObjectNotFoundException.class)
+                .hasMessage("Could not find wizard with Id 5 :(");
+        verify(this.artifactRepository, never()).transferOwner(any(), any());
+    }
+
+    private static ArtifactRepository.OwnerArtifactCount ownerCount(Integer ownerId, Long total) {
+        return new ArtifactRepository.OwnerArtifactCount() {
+            @Override
+            public Integer getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public Long getTotal() {
+                return total;
+            }
+        };
+    }
+
 }
\ No newline at end of file